@@ -6,6 +6,8 @@ import com.sun.net.httpserver.HttpHandler;
 import ru.java.java_kanban.exceptions.BadRequestException;
 import ru.java.java_kanban.exceptions.ConflictException;
 import ru.java.java_kanban.exceptions.NotFoundException;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -13,8 +15,15 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.List;
 
 public class BaseHttpHandler implements HttpHandler {
+    protected static final int DEFAULT_PAGE = 100;
+    protected static final int MAX_PAGE = 1000;
+
+    protected record PageParams(int after, int limit) {
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try {
@@ -118,6 +127,47 @@ public class BaseHttpHandler implements HttpHandler {
         return null;
     }
 
+    // POST <context>/batch - bulk insert of a JSON array
+    protected boolean isBatch(HttpExchange exchange) {
+        return exchange.getRequestURI().getPath().endsWith("/batch");
+    }
+
+    // ?status=IN_PROGRESS; null if the parameter is absent
+    protected TaskStatus statusParameter(HttpExchange exchange) {
+        String status = queryParameter(exchange, "status");
+        if (status == null) {
+            return null;
+        }
+        try {
+            return TaskStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("bad status: " + status);
+        }
+    }
+
+    // ?limit=&after= - cursor page; null if neither parameter is present
+    protected PageParams pageParameters(HttpExchange exchange) {
+        String limitStr = queryParameter(exchange, "limit");
+        String afterStr = queryParameter(exchange, "after");
+        if (limitStr == null && afterStr == null) {
+            return null;
+        }
+        int limit = limitStr == null ? DEFAULT_PAGE : parseIdOrBadRequest(limitStr);
+        int after = afterStr == null ? 0 : parseIdOrBadRequest(afterStr);
+        if (limit <= 0 || limit > MAX_PAGE) {
+            throw new BadRequestException("limit must be in 1.." + MAX_PAGE);
+        }
+        return new PageParams(after, limit);
+    }
+
+    // full page - the client continues with after=X-Next-After
+    protected void sendPage(HttpExchange exchange, List<? extends Task> page, PageParams params) throws IOException {
+        if (page.size() == params.limit()) {
+            exchange.getResponseHeaders().set("X-Next-After", String.valueOf(page.get(page.size() - 1).getId()));
+        }
+        sendJson(exchange, gson().toJson(page), 200);
+    }
+
     // exception interception
     protected int parseIdOrBadRequest(String id) {
         try {
@@ -6,6 +6,8 @@ import ru.java.java_kanban.exceptions.BadRequestException;
 import ru.java.java_kanban.exceptions.NotFoundException;
 import ru.java.java_kanban.manager.task.TaskManager;
 import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
 
 import java.io.IOException;
 import java.util.Objects;
@@ -22,7 +24,16 @@ public class EpicHttpHandler extends BaseHttpHandler {
     protected void doGet(HttpExchange exchange) throws IOException {
         String idStr = queryParameter(exchange, "id");
         if (idStr == null) {
-            sendJson(exchange, gson.toJson(manager.getAllEpics()), 200);
+            TaskStatus status = statusParameter(exchange);
+            PageParams page = pageParameters(exchange);
+            if (page != null) {
+                sendPage(exchange, manager.getPage(TaskType.EPIC, status, page.after(), page.limit()), page);
+            } else if (status == null) {
+                sendJson(exchange, gson.toJson(manager.getAllEpics()), 200);
+            } else {
+                sendJson(exchange, gson.toJson(manager.findByStatus(TaskType.EPIC, status)), 200);
+            }
+            return;
         }
 
         int id = parseIdOrBadRequest(idStr);
@@ -0,0 +1,179 @@
+package ru.java.java_kanban.http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import ru.java.java_kanban.exceptions.BadRequestException;
+import ru.java.java_kanban.manager.event.EventSubscription;
+import ru.java.java_kanban.manager.event.TaskEvent;
+import ru.java.java_kanban.manager.task.TaskManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// GET /events - лента изменений в формате server-sent events:
+//   id: <метка запуска>-<номер события>, event: created|updated|deleted,
+//   data: {sequence, kind, type, id, before, after, timestamp}.
+// Возобновление - заголовок Last-Event-ID (его шлёт EventSource при переподключении) или ?after=, без них -
+// только новые события; голый номер считается номером текущего запуска. event: overflow - часть событий
+// вытеснена из кольца или id выдан прошлым запуском сервера, доску надо перечитать целиком.
+// Каждый подписчик читает свой курсор в отдельном виртуальном потоке, потоки HTTP-сервера сразу освобождаются
+public class EventsHttpHandler extends BaseHttpHandler implements AutoCloseable {
+    private static final int BATCH = 256;
+    private static final Duration HEARTBEAT = Duration.ofSeconds(15);
+    // пауза перед переподключением EventSource, мс
+    private static final int RETRY_MILLIS = 3000;
+
+    // epoch == null - голый номер без метки запуска
+    private record Resume(String epoch, long after) {
+    }
+
+    private final Gson gson = BaseHttpHandler.gson();
+    private final TaskManager manager;
+    private final ExecutorService streams = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    public EventsHttpHandler(TaskManager manager) {
+        this.manager = Objects.requireNonNull(manager, "EventsHttpHandler: manager must not be null");
+    }
+
+    public int getSubscribers() {
+        return subscribers.get();
+    }
+
+    // поток ответа живёт дольше handle(), поэтому exchange закрывает не базовый обработчик, а stream()
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            super.handle(exchange);
+            return;
+        }
+        Resume resume;
+        try {
+            resume = resumePosition(exchange);
+        } catch (BadRequestException e) {
+            try {
+                sendError(exchange, 400, "BAD_REQUEST", e.getMessage());
+            } finally {
+                exchange.close();
+            }
+            return;
+        }
+        // подписка до ответа: всё, что случится после получения клиентом заголовков, он увидит
+        EventSubscription resumed = resume == null ? null : manager.subscribe(resume.after());
+        // чужая метка или номер больше последнего - клиент помнит ленту прошлого запуска сервера,
+        // её номера к текущему кольцу не относятся
+        boolean stale = resumed != null
+                && (resume.epoch() != null && !resume.epoch().equals(resumed.epoch())
+                || resumed.position() < resume.after());
+        EventSubscription subscription = resumed == null || stale ? manager.subscribe() : resumed;
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream;charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        try {
+            streams.execute(() -> stream(exchange, subscription, stale));
+        } catch (RejectedExecutionException e) {
+            exchange.close();
+        }
+    }
+
+    private void stream(HttpExchange exchange, EventSubscription subscription, boolean stale) {
+        subscribers.incrementAndGet();
+        StringBuilder frame = new StringBuilder(1024);
+        long dropped = 0;
+        try (OutputStream out = exchange.getResponseBody()) {
+            frame.append("retry: ").append(RETRY_MILLIS).append("\n\n");
+            if (stale) {
+                frame.append("event: overflow\ndata: {\"dropped\":-1}\n\n");
+            }
+            send(out, frame);
+            while (!Thread.currentThread().isInterrupted()) {
+                List<TaskEvent> events = subscription.poll(BATCH, HEARTBEAT);
+                if (subscription.dropped() > dropped) {
+                    frame.append("event: overflow\ndata: {\"dropped\":")
+                            .append(subscription.dropped() - dropped).append("}\n\n");
+                    dropped = subscription.dropped();
+                }
+                for (TaskEvent event : events) {
+                    frame.append("id: ").append(subscription.epoch()).append('-').append(event.sequence()).append('\n')
+                            .append("event: ").append(event.kind().name().toLowerCase(Locale.ROOT)).append('\n')
+                            .append("data: ").append(gson.toJson(toJson(event))).append("\n\n");
+                }
+                if (frame.isEmpty()) {
+                    // комментарий держит соединение и вовремя выявляет отключившихся
+                    frame.append(": keep-alive\n\n");
+                }
+                send(out, frame);
+            }
+        } catch (IOException e) {
+            // клиент отключился
+        } finally {
+            subscribers.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static void send(OutputStream out, StringBuilder frame) throws IOException {
+        out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        frame.setLength(0);
+    }
+
+    // Instant у Gson без адаптера не сериализуется, и задачи до/после нужны со своими полями (эпик, сабтаск)
+    private JsonObject toJson(TaskEvent event) {
+        JsonObject json = new JsonObject();
+        json.addProperty("sequence", event.sequence());
+        json.addProperty("kind", event.kind().name());
+        json.addProperty("type", event.type().name());
+        json.addProperty("id", event.id());
+        if (event.before() != null) {
+            json.add("before", gson.toJsonTree(event.before()));
+        }
+        if (event.after() != null) {
+            json.add("after", gson.toJsonTree(event.after()));
+        }
+        json.addProperty("timestamp", event.timestamp().toString());
+        return json;
+    }
+
+    // null - подписка только на новые события; id - "<метка>-<номер>" или просто номер
+    private Resume resumePosition(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        if (value == null) {
+            value = queryParameter(exchange, "after");
+        }
+        if (value == null) {
+            return null;
+        }
+        String id = value.trim();
+        int dash = id.lastIndexOf('-');
+        String epoch = dash < 0 ? null : id.substring(0, dash);
+        if (epoch != null && epoch.isEmpty()) {
+            throw new BadRequestException("bad event id: " + value);
+        }
+        try {
+            long after = Long.parseLong(id.substring(dash + 1));
+            if (after < 0) {
+                throw new BadRequestException("bad event id: " + value);
+            }
+            return new Resume(epoch, after);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("bad event id: " + value);
+        }
+    }
+
+    // прерывает все открытые потоки, клиенты переподключатся сами
+    @Override
+    public void close() {
+        streams.shutdownNow();
+    }
+}
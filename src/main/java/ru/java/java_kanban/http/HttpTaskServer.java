@@ -3,25 +3,37 @@ package ru.java.java_kanban.http;
 import com.sun.net.httpserver.HttpServer;
 import ru.java.java_kanban.manager.history.InMemoryHistoryManager;
 import ru.java.java_kanban.manager.task.FileBackedTaskManager;
+import ru.java.java_kanban.manager.task.SearchStats;
 import ru.java.java_kanban.manager.task.TaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.file.Path;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HttpTaskServer {
     private final TaskManager manager;
     private final int requestedPort;
+    private final int threads;
     private HttpServer server;
+    private ExecutorService executor;
+    private EventsHttpHandler events;
     private int boundPort;
 
     public HttpTaskServer(TaskManager manager) {
         this(manager, 0);
     }
     public HttpTaskServer(TaskManager manager, int port) {
+        this(manager, port, 1);
+    }
+
+    // threads > 1 только для потокобезопасного менеджера
+    public HttpTaskServer(TaskManager manager, int port, int threads) {
         this.manager = Objects.requireNonNull(manager, "HttpTaskServer: manager must not be null");
         this.requestedPort = port;
+        this.threads = threads;
     }
 
     public void start() throws IOException {
@@ -31,6 +43,14 @@ public class HttpTaskServer {
         server.createContext("/subtasks", new SubtaskHttpHandler(manager));
         server.createContext("/history", new HistoryHttpHandler(manager));
         server.createContext("/priority", new PrioritizedHttpHandler(manager));
+        server.createContext("/search", new SearchHttpHandler(manager));
+        // подписчики ленты держатся в своих виртуальных потоках, не занимая потоки сервера
+        events = new EventsHttpHandler(manager);
+        server.createContext("/events", events);
+        if (threads > 1) {
+            executor = Executors.newFixedThreadPool(threads);
+            server.setExecutor(executor);
+        }
 
         server.start();
         boundPort = server.getAddress().getPort();
@@ -38,9 +58,15 @@ public class HttpTaskServer {
     }
 
     public void stop() {
+        if (events != null) {
+            events.close();
+        }
         if (server != null) {
             server.stop(0);
         }
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
 
     public String getBaseUrl() {
@@ -50,7 +76,10 @@ public class HttpTaskServer {
     public static void main(String[] args) throws IOException {
         int PORT = 8080;
         Path file = Path.of("tasks.csv");
-        TaskManager mgr = new FileBackedTaskManager(new InMemoryHistoryManager(), file);
-        new HttpTaskServer(mgr, PORT).start();
+        FileBackedTaskManager mgr = new FileBackedTaskManager(new InMemoryHistoryManager(), file);
+        SearchStats search = mgr.getSearchStats();
+        System.out.println("Search index: " + search.documents() + " tasks, " + search.terms() + " terms, ~"
+                + search.estimatedBytes() / 1024 + " KiB, built in " + search.lastBuild().toMillis() + " ms");
+        new HttpTaskServer(mgr, PORT, Runtime.getRuntime().availableProcessors()).start();
     }
 }
@@ -0,0 +1,35 @@
+package ru.java.java_kanban.http;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import ru.java.java_kanban.exceptions.BadRequestException;
+import ru.java.java_kanban.manager.task.TaskManager;
+
+import java.io.IOException;
+import java.util.Objects;
+
+// GET /search?q=...&limit=N - задачи всех типов, лучшие совпадения первыми
+public class SearchHttpHandler extends BaseHttpHandler {
+    private static final int DEFAULT_LIMIT = 50;
+
+    private final Gson gson = BaseHttpHandler.gson();
+    private final TaskManager manager;
+
+    public SearchHttpHandler(TaskManager manager) {
+        this.manager = Objects.requireNonNull(manager, "SearchHttpHandler: manager must not be null");
+    }
+
+    @Override
+    protected void doGet(HttpExchange exchange) throws IOException {
+        String query = queryParameter(exchange, "q");
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("missing q");
+        }
+        String limitStr = queryParameter(exchange, "limit");
+        int limit = limitStr == null ? DEFAULT_LIMIT : parseIdOrBadRequest(limitStr);
+        if (limit <= 0) {
+            throw new BadRequestException("bad limit");
+        }
+        sendJson(exchange, gson.toJson(manager.search(query, limit)), 200);
+    }
+}
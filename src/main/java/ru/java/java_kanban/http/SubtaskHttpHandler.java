@@ -2,12 +2,17 @@ package ru.java.java_kanban.http;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import ru.java.java_kanban.exceptions.BadRequestException;
 import ru.java.java_kanban.manager.task.TaskManager;
 import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 
 public class SubtaskHttpHandler extends BaseHttpHandler {
@@ -38,6 +43,7 @@ public class SubtaskHttpHandler extends BaseHttpHandler {
             return;
         }
 
+        TaskStatus status = statusParameter(exchange);
         String epicIdStr = queryParameter(exchange, "epicId");
         if (epicIdStr != null) {
             int epicId;
@@ -51,16 +57,33 @@ public class SubtaskHttpHandler extends BaseHttpHandler {
             if (list == null) {
                 list = Collections.emptyList();
             }
+            // сабтасков у одного эпика немного - фильтр прямо по списку
+            if (status != null) {
+                list = list.stream().filter(s -> s.getStatus() == status).toList();
+            }
             sendJson(exchange, gson.toJson(list), 200);
             return;
         }
 
+        PageParams page = pageParameters(exchange);
+        if (page != null) {
+            sendPage(exchange, manager.getPage(TaskType.SUBTASK, status, page.after(), page.limit()), page);
+            return;
+        }
+        if (status != null) {
+            sendJson(exchange, gson.toJson(manager.findByStatus(TaskType.SUBTASK, status)), 200);
+            return;
+        }
         sendJson(exchange, gson.toJson(manager.getAllSubtasks()), 200);
     }
 
 
     @Override
     protected void doPost(HttpExchange exchange) throws IOException {
+        if (isBatch(exchange)) {
+            postBatch(exchange);
+            return;
+        }
         String body = readBody(exchange);
         Subtask subtask;
         try {
@@ -93,6 +116,21 @@ public class SubtaskHttpHandler extends BaseHttpHandler {
         }
     }
 
+    // всё или ничего: неизвестный эпик - 404, пересечение по расписанию - 406
+    private void postBatch(HttpExchange exchange) throws IOException {
+        Subtask[] batch = gson.fromJson(readBody(exchange), Subtask[].class);
+        if (batch == null || Arrays.asList(batch).contains(null)) {
+            throw new BadRequestException("bad json");
+        }
+        try {
+            sendJson(exchange, gson.toJson(manager.addSubtasks(Arrays.asList(batch))), 201);
+        } catch (NoSuchElementException e) {
+            sendNotFound(exchange);
+        } catch (IllegalArgumentException iae) {
+            sendHasInteractions(exchange);
+        }
+    }
+
     @Override
     protected void doDelete(HttpExchange exchange) throws IOException {
         String idStr = queryParameter(exchange, "id");
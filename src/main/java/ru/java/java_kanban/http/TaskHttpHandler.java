@@ -2,10 +2,15 @@ package ru.java.java_kanban.http;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import ru.java.java_kanban.exceptions.BadRequestException;
 import ru.java.java_kanban.manager.task.TaskManager;
 import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 public class TaskHttpHandler extends BaseHttpHandler {
@@ -20,7 +25,16 @@ public class TaskHttpHandler extends BaseHttpHandler {
     protected void doGet(HttpExchange exchange) throws IOException {
         String idStr = queryParameter(exchange, "id");
         if (idStr == null) {
-            sendJson(exchange, gson.toJson(manager.getAllTasks()), 200);
+            TaskStatus status = statusParameter(exchange);
+            PageParams page = pageParameters(exchange);
+            if (page != null) {
+                sendPage(exchange, manager.getPage(TaskType.TASK, status, page.after(), page.limit()), page);
+                return;
+            }
+            List<Task> found = status == null
+                    ? manager.getAllTasks()
+                    : manager.findByStatus(TaskType.TASK, status);
+            sendJson(exchange, gson.toJson(found), 200);
             return;
         }
         int id;
@@ -40,6 +54,10 @@ public class TaskHttpHandler extends BaseHttpHandler {
 
     @Override
     protected void doPost(HttpExchange exchange) throws IOException {
+        if (isBatch(exchange)) {
+            postBatch(exchange);
+            return;
+        }
         String body = readBody(exchange);
         Task task;
         try {
@@ -77,6 +95,19 @@ public class TaskHttpHandler extends BaseHttpHandler {
     }
 
 
+    // всё или ничего: при пересечении по расписанию не добавляется ни одна задача
+    private void postBatch(HttpExchange exchange) throws IOException {
+        Task[] batch = gson.fromJson(readBody(exchange), Task[].class);
+        if (batch == null || Arrays.asList(batch).contains(null)) {
+            throw new BadRequestException("bad json");
+        }
+        try {
+            sendJson(exchange, gson.toJson(manager.addTasks(Arrays.asList(batch))), 201);
+        } catch (IllegalArgumentException iae) {
+            sendHasInteractions(exchange);
+        }
+    }
+
     @Override
     protected void doDelete(HttpExchange exchange) throws IOException {
         String idStr = queryParameter(exchange, "id");
@@ -0,0 +1,82 @@
+package ru.java.java_kanban.manager.event;
+
+import ru.java.java_kanban.model.Task;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// кольцо последних событий без блокировок: писатель берёт номер инкрементом счётчика и кладёт событие
+// в слот sequence & mask, ничего не ожидая. Читатели (EventSubscription) идут по номерам со своей скоростью;
+// кто отстал больше чем на ёмкость, пропускает перезаписанное и узнаёт об этом через dropped()
+public final class EventRing {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final AtomicReferenceArray<TaskEvent> slots;
+    private final int mask;
+    // номер следующего события; номера начинаются с 1, 0 - "до первого события"
+    private final AtomicLong next = new AtomicLong(1);
+    // метка запуска: номера начинаются заново с каждым кольцом, по ней номер прошлого запуска отличим от текущего
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    public EventRing() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // ёмкость округляется вверх до степени двойки
+    public EventRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public TaskEvent publish(TaskEvent.Kind kind, Task before, Task after) {
+        Task subject = after != null ? after : before;
+        long sequence = next.getAndIncrement();
+        TaskEvent event = new TaskEvent(sequence, kind, subject.getType(), subject.getId(),
+                before, after, Instant.now());
+        // писатель, обогнавший на круг медленного писателя того же слота, не затирается им
+        slots.accumulateAndGet(index(sequence), event,
+                (current, fresh) -> current == null || current.sequence() < fresh.sequence() ? fresh : current);
+        return event;
+    }
+
+    // номер последнего выданного события (оно может быть ещё не записано в слот)
+    public long lastSequence() {
+        return next.get() - 1;
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // только новые события
+    public EventSubscription subscribe() {
+        return subscribe(lastSequence());
+    }
+
+    // события с номерами больше afterSequence; ушедшие из кольца засчитываются в dropped()
+    public EventSubscription subscribe(long afterSequence) {
+        return new EventSubscription(this, Math.max(0, Math.min(afterSequence, lastSequence())) + 1);
+    }
+
+    // событие с номером sequence, если оно уже записано и ещё не перезаписано; иначе то, что лежит в слоте
+    TaskEvent slot(long sequence) {
+        return slots.get(index(sequence));
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+}
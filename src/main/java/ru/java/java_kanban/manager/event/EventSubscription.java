@@ -0,0 +1,80 @@
+package ru.java.java_kanban.manager.event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// курсор одного потребителя по EventRing. Писателей не держит: отставший больше чем на ёмкость кольца
+// перескакивает на самое старое оставшееся событие. Рассчитан на один читающий поток
+public final class EventSubscription {
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final EventRing ring;
+    // номер следующего события для чтения
+    private long cursor;
+    private long dropped;
+
+    EventSubscription(EventRing ring, long cursor) {
+        this.ring = ring;
+        this.cursor = cursor;
+    }
+
+    // до max событий, уже лежащих в кольце, по возрастанию номера; без ожидания
+    public List<TaskEvent> poll(int max) {
+        List<TaskEvent> events = new ArrayList<>(Math.min(max, 64));
+        long head = ring.lastSequence();
+        while (events.size() < max && cursor <= head) {
+            long oldest = head - ring.capacity() + 1;
+            if (cursor < oldest) {
+                dropped += oldest - cursor;
+                cursor = oldest;
+            }
+            TaskEvent event = ring.slot(cursor);
+            if (event == null || event.sequence() < cursor) {
+                // номер выдан, но писатель ещё не положил событие - порядок важнее, ждём его
+                break;
+            }
+            if (event.sequence() > cursor) {
+                // пока читали, кольцо ушло на круг вперёд
+                head = ring.lastSequence();
+                continue;
+            }
+            events.add(event);
+            cursor++;
+        }
+        return events;
+    }
+
+    // как poll(max), но ждёт хотя бы одного события до timeout; пусто - время вышло или поток прерван
+    public List<TaskEvent> poll(int max, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long backoff = MIN_BACKOFF_NANOS;
+        while (true) {
+            List<TaskEvent> events = poll(max);
+            long left = deadline - System.nanoTime();
+            if (!events.isEmpty() || left <= 0 || Thread.currentThread().isInterrupted()) {
+                return events;
+            }
+            LockSupport.parkNanos(Math.min(backoff, left));
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    // номер последнего прочитанного события (для возобновления через subscribe(afterSequence))
+    public long position() {
+        return cursor - 1;
+    }
+
+    // метка кольца, к номерам которого относится position()
+    public String epoch() {
+        return ring.epoch();
+    }
+
+    // сколько событий перезаписано раньше, чем этот потребитель до них дошёл
+    public long dropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.java.java_kanban.manager.event;
+
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskType;
+
+import java.time.Instant;
+
+// одно зафиксированное изменение: sequence - сквозной номер в кольце менеджера, before/after - копии
+// задачи до и после (null у созданной и удалённой соответственно), их потребитель может хранить как есть
+public record TaskEvent(long sequence, Kind kind, TaskType type, int id, Task before, Task after, Instant timestamp) {
+
+    public enum Kind {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -2,6 +2,7 @@ package ru.java.java_kanban.manager.history;
 
 import ru.java.java_kanban.model.Task;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface HistoryManager {
@@ -10,4 +11,13 @@ public interface HistoryManager {
     List<Task> getHistory();
 
     void remove(int id);
+
+    default boolean contains(int id) {
+        return getHistory().stream().anyMatch(task -> task.getId() == id);
+    }
+
+    // массовое удаление (каскад эпика, очистка типа); id, которых нет в истории, пропускаются
+    default void removeAll(Collection<Integer> ids) {
+        ids.forEach(this::remove);
+    }
 }
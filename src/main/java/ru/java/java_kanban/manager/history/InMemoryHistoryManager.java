@@ -63,6 +63,11 @@ public class InMemoryHistoryManager implements HistoryManager {
                 .toList();
     }
 
+    @Override
+    public boolean contains(int id) {
+        return historyMap.containsKey(id);
+    }
+
     @Override
     public void remove(int id) {
         Node node = historyMap.remove(id);
@@ -0,0 +1,101 @@
+package ru.java.java_kanban.manager.history;
+
+import ru.java.java_kanban.manager.storage.HistoryJournal;
+import ru.java.java_kanban.model.Task;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+// история, каждое изменение которой дописывается в HistoryJournal; снапшот доски при чтении не трогается
+public class JournaledHistoryManager implements HistoryManager, AutoCloseable {
+    // после сжатия следующее - когда записей станет в столько раз больше, чем задач в истории
+    private static final int COMPACTION_RATIO = 4;
+    private static final int MIN_RECORDS_TO_COMPACT = 1024;
+
+    private final HistoryManager delegate;
+    private final HistoryJournal journal;
+    private boolean muted;
+    private long compactAt = MIN_RECORDS_TO_COMPACT;
+
+    public JournaledHistoryManager(HistoryManager delegate, HistoryJournal journal) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("HistoryManager must not be null");
+        }
+        this.delegate = delegate;
+        this.journal = journal;
+    }
+
+    @Override
+    public void add(Task task) {
+        delegate.add(task);
+        if (!muted && task != null) {
+            journal.viewed(task.getId());
+            compactIfNeeded();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    // в журнал идут только id, которые были в истории: очистка типа или каскад эпика
+    // не пишут запись на каждую непросмотренную задачу
+    @Override
+    public void remove(int id) {
+        if (!delegate.contains(id)) {
+            return;
+        }
+        delegate.remove(id);
+        if (!muted) {
+            journal.removed(id);
+            compactIfNeeded();
+        }
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return delegate.contains(id);
+    }
+
+    // пока идёт восстановление менеджера, изменения истории в журнал не пишутся
+    public void setMuted(boolean muted) {
+        this.muted = muted;
+    }
+
+    // проигрывает журнал поверх уже загруженных задач; id без задачи пропускаются
+    public void replay(IntFunction<Task> lookup) {
+        boolean wasMuted = muted;
+        muted = true;
+        try {
+            journal.replay(id -> delegate.add(lookup.apply(id)), delegate::remove);
+        } finally {
+            muted = wasMuted;
+        }
+        compactIfNeeded();
+    }
+
+    public void compact() {
+        List<Integer> ids = delegate.getHistory().stream()
+                .map(Task::getId)
+                .toList();
+        journal.rewrite(ids);
+        compactAt = Math.max(MIN_RECORDS_TO_COMPACT, (long) COMPACTION_RATIO * ids.size());
+    }
+
+    public long journalRecords() {
+        return journal.records();
+    }
+
+    // порог пересчитывается только при сжатии, так что проверка на каждый просмотр - O(1)
+    private void compactIfNeeded() {
+        if (journal.records() >= compactAt) {
+            compact();
+        }
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+}
@@ -0,0 +1,24 @@
+package ru.java.java_kanban.manager.storage;
+
+import java.time.Duration;
+
+// когда сжимать журнал: по размеру, по числу записей или по таймеру (значение <= 0 / null отключает триггер)
+public record CompactionPolicy(long maxJournalBytes, long maxJournalRecords, Duration interval) {
+
+    public static CompactionPolicy defaults() {
+        return new CompactionPolicy(16L * 1024 * 1024, 100_000, Duration.ofMinutes(10));
+    }
+
+    public static CompactionPolicy disabled() {
+        return new CompactionPolicy(0, 0, null);
+    }
+
+    public boolean isExceeded(long journalBytes, long journalRecords) {
+        return (maxJournalBytes > 0 && journalBytes >= maxJournalBytes)
+                || (maxJournalRecords > 0 && journalRecords >= maxJournalRecords);
+    }
+
+    public boolean hasInterval() {
+        return interval != null && !interval.isZero() && !interval.isNegative();
+    }
+}
@@ -0,0 +1,10 @@
+package ru.java.java_kanban.manager.storage;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public record CompactionStats(Duration elapsed,
+                              long reclaimedBytes,
+                              long reclaimedRecords,
+                              Instant finishedAt) {
+}
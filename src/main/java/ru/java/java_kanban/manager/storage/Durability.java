@@ -0,0 +1,10 @@
+package ru.java.java_kanban.manager.storage;
+
+public enum Durability {
+    // fsync перед возвратом из каждой мутации
+    SYNC,
+    // конкурентные мутации ждут одного общего fsync в пределах окна syncWindow
+    GROUP_COMMIT,
+    // fsync по таймеру раз в syncWindow, мутации не ждут диск
+    ASYNC
+}
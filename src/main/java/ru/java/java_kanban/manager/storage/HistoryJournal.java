@@ -0,0 +1,149 @@
+package ru.java.java_kanban.manager.storage;
+
+import ru.java.java_kanban.exceptions.ManagerSaveException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// журнал истории просмотров: запись - zigzag-varint id (просмотр) или -id (удаление из истории), 1-5 байт.
+// Без fsync: история вспомогательная, потеря последних просмотров при падении допустима
+public class HistoryJournal implements AutoCloseable {
+    private final Path file;
+    private final ByteBuffer record = ByteBuffer.allocate(5);
+    private FileChannel channel;
+    private long records;
+
+    public HistoryJournal(Path file) {
+        this.file = file;
+    }
+
+    public synchronized void viewed(int id) {
+        append(id);
+    }
+
+    public synchronized void removed(int id) {
+        append(-id);
+    }
+
+    public synchronized long records() {
+        return records;
+    }
+
+    // недописанный хвост (оборванный varint) отрезается
+    public synchronized void replay(IntConsumer viewed, IntConsumer removed) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new ManagerSaveException("⚠ Error replaying history journal: " + file);
+        }
+        int valid = 0;
+        long count = 0;
+        int value = 0;
+        int shift = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            value |= (bytes[i] & 0x7F) << shift;
+            if ((bytes[i] & 0x80) != 0) {
+                shift += 7;
+                continue;
+            }
+            int id = (value >>> 1) ^ -(value & 1);
+            if (id > 0) {
+                viewed.accept(id);
+            } else {
+                removed.accept(-id);
+            }
+            value = 0;
+            shift = 0;
+            valid = i + 1;
+            count++;
+        }
+        records = count;
+        if (valid < bytes.length) {
+            try {
+                channel().truncate(valid);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Error truncating history journal " + file);
+            }
+        }
+    }
+
+    // сжатие: журнал заменяется текущей историей, по одной записи на задачу
+    public synchronized void rewrite(List<Integer> ids) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ids.size() * 3);
+        for (int id : ids) {
+            encode(id);
+            out.write(record.array(), 0, record.limit());
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(tmp, out.toByteArray(),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            close();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            records = ids.size();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error compacting history journal " + file);
+        }
+    }
+
+    private void append(int id) {
+        encode(id);
+        try {
+            FileChannel ch = channel();
+            while (record.hasRemaining()) {
+                ch.write(record);
+            }
+            records++;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error appending to history journal " + file);
+        }
+    }
+
+    private void encode(int id) {
+        int value = (id << 1) ^ (id >> 31);
+        record.clear();
+        while ((value & ~0x7F) != 0) {
+            record.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        record.put((byte) value);
+        record.flip();
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error closing history journal " + file);
+        } finally {
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.java.java_kanban.manager.storage;
+
+import ru.java.java_kanban.exceptions.ManagerSaveException;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// фоновое сжатие журнала: новый снапшот + отрезание уже учтённого префикса
+public class JournalCompactor implements AutoCloseable {
+    private final TaskJournal journal;
+    private final CompactionPolicy policy;
+    private final Supplier<CompactionStats> compaction;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private volatile CompactionStats lastRun;
+    // ошибка последнего фонового сжатия; отдаётся следующему checkpoint(), удачный прогон её сбрасывает
+    private volatile String failure;
+
+    private JournalCompactor(TaskJournal journal, CompactionPolicy policy, Supplier<CompactionStats> compaction) {
+        this.journal = journal;
+        this.policy = policy;
+        this.compaction = compaction;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // таймер ставится уже на готовый объект, не из конструктора
+    public static JournalCompactor start(TaskJournal journal, CompactionPolicy policy,
+                                         Supplier<CompactionStats> compaction) {
+        JournalCompactor compactor = new JournalCompactor(journal, policy, compaction);
+        if (policy.hasInterval()) {
+            long millis = policy.interval().toMillis();
+            compactor.executor.scheduleWithFixedDelay(compactor::requestCompaction, millis, millis,
+                    TimeUnit.MILLISECONDS);
+        }
+        return compactor;
+    }
+
+    // вызывается после каждой записи в журнал, сама проверка дешёвая
+    public void afterAppend() {
+        if (policy.isExceeded(journal.size(), journal.records())) {
+            requestCompaction();
+        }
+    }
+
+    public void requestCompaction() {
+        if (!pending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::run);
+        } catch (RuntimeException e) {
+            pending.set(false);
+        }
+    }
+
+    private void run() {
+        try {
+            if (journal.records() > 0) {
+                recordRun(compaction.get());
+            }
+        } catch (RuntimeException e) {
+            failure = e.getMessage();
+        } finally {
+            pending.set(false);
+        }
+    }
+
+    public CompactionStats getLastRun() {
+        return lastRun;
+    }
+
+    public void recordRun(CompactionStats stats) {
+        lastRun = stats;
+        failure = null;
+    }
+
+    public void rethrowFailure() {
+        String message = failure;
+        if (message != null) {
+            failure = null;
+            throw new ManagerSaveException("Background journal compaction failed: " + message);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package ru.java.java_kanban.manager.storage;
+
+import ru.java.java_kanban.exceptions.ManagerSaveException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// выдаёт гарантии durability для записей журнала согласно выбранному режиму
+public class JournalFlusher implements AutoCloseable {
+    private final TaskJournal journal;
+    private final Durability durability;
+    private final Duration window;
+    private Thread worker;
+    private long requested;
+    private long durable;
+    private long syncs;
+    // ошибка последнего неудачного fsync и номер, до которого он должен был довести; записи после него
+    // ждут следующей попытки, а удачный fsync ошибку сбрасывает
+    private String failure;
+    private long failedThrough;
+    private volatile boolean running = true;
+
+    private JournalFlusher(TaskJournal journal, Durability durability, Duration window) {
+        this.journal = journal;
+        this.durability = durability;
+        this.window = window;
+    }
+
+    // фоновый поток запускается уже на готовом объекте, не из конструктора
+    public static JournalFlusher start(TaskJournal journal, Durability durability, Duration window) {
+        JournalFlusher flusher = new JournalFlusher(journal, durability, window);
+        flusher.worker = switch (durability) {
+            case SYNC -> null;
+            case GROUP_COMMIT -> daemon("journal-group-commit", flusher::groupCommitLoop);
+            case ASYNC -> daemon("journal-async-flush", flusher::asyncLoop);
+        };
+        return flusher;
+    }
+
+    private static Thread daemon(String name, Runnable loop) {
+        Thread thread = new Thread(loop, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // блокирует вызывающего, пока запись с номером sequence не станет durable (кроме ASYNC)
+    public void await(long sequence) {
+        switch (durability) {
+            case SYNC -> {
+                if (!isDurable(sequence)) {
+                    markDurable(journal.force());
+                }
+            }
+            case GROUP_COMMIT -> {
+                if (!awaitGroup(sequence)) {
+                    // поток уже остановлен close(): синкаем сами, а не подтверждаем запись без fsync
+                    markDurable(journal.force());
+                }
+            }
+            case ASYNC -> {
+            }
+        }
+    }
+
+    public synchronized long durableSequence() {
+        return durable;
+    }
+
+    private synchronized boolean isDurable(long sequence) {
+        return durable >= sequence;
+    }
+
+    public synchronized long syncCount() {
+        return syncs;
+    }
+
+    private synchronized void markDurable(long sequence) {
+        syncs++;
+        if (sequence > durable) {
+            durable = sequence;
+        }
+        if (durable >= failedThrough) {
+            failure = null;
+        }
+        notifyAll();
+    }
+
+    // false - запись не durable, а фоновый поток уже остановлен
+    private synchronized boolean awaitGroup(long sequence) {
+        if (sequence > requested) {
+            requested = sequence;
+            notifyAll();
+        }
+        boolean interrupted = false;
+        while (durable < sequence && !failed(sequence) && running) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (durable >= sequence) {
+            return true;
+        }
+        if (failed(sequence)) {
+            throw new ManagerSaveException(failure);
+        }
+        return false;
+    }
+
+    // запись попала в fsync, который не удался
+    private boolean failed(long sequence) {
+        return failure != null && sequence <= failedThrough;
+    }
+
+    private void groupCommitLoop() {
+        while (running) {
+            synchronized (this) {
+                while (running && requested <= durable) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            if (!running) {
+                return;
+            }
+            // даём окну набрать ещё мутаций, чтобы они легли в тот же fsync
+            pause(window);
+            flush();
+        }
+    }
+
+    private void asyncLoop() {
+        while (running) {
+            pause(window);
+            if (journal.lastSequence() > durableSequence()) {
+                flush();
+            }
+        }
+    }
+
+    private void flush() {
+        long target = journal.lastSequence();
+        try {
+            markDurable(journal.force());
+        } catch (ManagerSaveException e) {
+            synchronized (this) {
+                failure = e.getMessage();
+                failedThrough = Math.max(failedThrough, target);
+                notifyAll();
+            }
+        }
+    }
+
+    // не через interrupt: прерывание потока во время force() закрыло бы FileChannel
+    private void pause(Duration duration) {
+        LockSupport.parkNanos(this, duration.toNanos());
+    }
+
+    // финальный fsync: всё, что успели записать, должно лечь на диск
+    @Override
+    public void close() {
+        running = false;
+        if (worker != null) {
+            synchronized (this) {
+                notifyAll();
+            }
+            LockSupport.unpark(worker);
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (journal.lastSequence() > durableSequence()) {
+            flush();
+        }
+    }
+}
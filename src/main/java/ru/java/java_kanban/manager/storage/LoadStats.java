@@ -0,0 +1,11 @@
+package ru.java.java_kanban.manager.storage;
+
+import java.time.Duration;
+
+// chunks - на сколько кусков файл был нарезан для параллельного декодирования
+public record LoadStats(SnapshotFormat format, long records, long bytes, int chunks, Duration elapsed) {
+
+    public static LoadStats empty() {
+        return new LoadStats(SnapshotFormat.CSV, 0, 0, 0, Duration.ZERO);
+    }
+}
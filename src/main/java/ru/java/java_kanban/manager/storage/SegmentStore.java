@@ -0,0 +1,271 @@
+package ru.java.java_kanban.manager.storage;
+
+import ru.java.java_kanban.exceptions.ManagerSaveException;
+import ru.java.java_kanban.model.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// шардированное хранилище: id делятся на сегменты по segmentSize, сегмент - отдельный файл <n>.<версия>.seg.
+// MANIFEST - точка фиксации: в нём текущая версия каждого сегмента и CRC её и предыдущей версии.
+// Новая версия пишется рядом со старой, и только после этого атомарно подменяется манифест
+public class SegmentStore {
+    private static final String MANIFEST = "MANIFEST";
+    private static final String SUFFIX = ".seg";
+
+    private record Entry(int version, long crc, long previousCrc) {
+    }
+
+    private final Path dir;
+    private final boolean fsync;
+    private final SnapshotFormat format;
+    private int segmentSize;
+    // подменяется целиком только после удачной записи MANIFEST: в памяти всегда то, что на диске
+    private TreeMap<Integer, Entry> manifest = new TreeMap<>();
+    private long segmentWrites;
+
+    public SegmentStore(Path dir, int segmentSize, SnapshotFormat format, boolean fsync) {
+        this.dir = dir;
+        this.format = format;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error creating segment directory " + dir);
+        }
+        readManifest();
+        discardOrphans();
+    }
+
+    public int segmentOf(int id) {
+        return Math.floorDiv(id, segmentSize);
+    }
+
+    public int segmentSize() {
+        return segmentSize;
+    }
+
+    // первый id сегмента; последний - firstId + segmentSize - 1
+    public int firstId(int segment) {
+        return segment * segmentSize;
+    }
+
+    public synchronized List<Integer> segments() {
+        return new ArrayList<>(manifest.keySet());
+    }
+
+    public synchronized Map<Integer, Integer> versions() {
+        Map<Integer, Integer> versions = new TreeMap<>();
+        manifest.forEach((segment, entry) -> versions.put(segment, entry.version()));
+        return Collections.unmodifiableMap(versions);
+    }
+
+    public synchronized long segmentWrites() {
+        return segmentWrites;
+    }
+
+    // пишет новые версии сегментов и фиксирует их одной подменой манифеста.
+    // Если запись бросила, манифест прежний, а недописанные версии повторная фиксация перезапишет
+    public synchronized void commit(Map<Integer, byte[]> dirty) {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        TreeMap<Integer, Entry> next = new TreeMap<>(manifest);
+        Map<Integer, Entry> previous = new TreeMap<>();
+        for (Map.Entry<Integer, byte[]> segment : dirty.entrySet()) {
+            Entry old = manifest.get(segment.getKey());
+            int version = old == null ? 1 : old.version() + 1;
+            write(path(segment.getKey(), version), segment.getValue());
+            CRC32 crc = new CRC32();
+            crc.update(segment.getValue());
+            previous.put(segment.getKey(), old);
+            next.put(segment.getKey(), new Entry(version, crc.getValue(), old == null ? 0 : old.crc()));
+            segmentWrites++;
+        }
+        writeManifest(next);
+        manifest = next;
+        // предыдущая версия остаётся запасной, удаляется только позапрошлая
+        previous.forEach((segment, old) -> {
+            if (old != null) {
+                deleteQuietly(path(segment, old.version() - 1));
+            }
+        });
+    }
+
+    // сегменты декодируются параллельно, в менеджер уходят по порядку номеров
+    public LoadStats load(Consumer<List<Task>> batches) {
+        long started = System.nanoTime();
+        List<Map.Entry<Integer, Entry>> entries;
+        synchronized (this) {
+            entries = new ArrayList<>(manifest.entrySet());
+        }
+        List<List<Task>> decoded = entries.parallelStream()
+                .map(entry -> read(entry.getKey(), entry.getValue()))
+                .toList();
+        long records = 0;
+        for (List<Task> batch : decoded) {
+            batches.accept(batch);
+            records += batch.size();
+        }
+        long bytes = entries.stream()
+                .mapToLong(entry -> size(path(entry.getKey(), entry.getValue().version())))
+                .sum();
+        return new LoadStats(format, records, bytes, entries.size(),
+                Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    // текущая версия битая (CRC не сошёлся) - берётся предыдущая
+    private List<Task> read(int segment, Entry entry) {
+        List<Task> tasks = readVerified(path(segment, entry.version()), entry.crc());
+        if (tasks != null) {
+            return tasks;
+        }
+        if (entry.version() > 1) {
+            tasks = readVerified(path(segment, entry.version() - 1), entry.previousCrc());
+            if (tasks != null) {
+                System.out.println("⚠ Segment " + segment + " v" + entry.version()
+                        + " is damaged, using v" + (entry.version() - 1));
+                return tasks;
+            }
+        }
+        throw new ManagerSaveException("⚠ Segment " + segment + " is damaged and has no usable previous version");
+    }
+
+    private List<Task> readVerified(Path file, long expectedCrc) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if (crc.getValue() != expectedCrc) {
+                return null;
+            }
+            return SnapshotLoader.decode(buffer);
+        } catch (IOException e) {
+            throw new ManagerSaveException("⚠ Error loading segment " + file);
+        }
+    }
+
+    private void readManifest() {
+        Path file = dir.resolve(MANIFEST);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (line.startsWith("size=")) {
+                    // размер сегмента задаётся при создании хранилища и дальше не меняется
+                    segmentSize = Integer.parseInt(line.substring("size=".length()));
+                    continue;
+                }
+                String[] parts = line.split(",");
+                manifest.put(Integer.parseInt(parts[0]), new Entry(Integer.parseInt(parts[1]),
+                        Long.parseLong(parts[2]), Long.parseLong(parts[3])));
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("⚠ Error reading segment manifest " + file);
+        }
+    }
+
+    private void writeManifest(Map<Integer, Entry> entries) {
+        StringBuilder sb = new StringBuilder("size=").append(segmentSize).append('\n');
+        entries.forEach((segment, entry) -> sb.append(segment).append(',')
+                .append(entry.version()).append(',')
+                .append(entry.crc()).append(',')
+                .append(entry.previousCrc()).append('\n'));
+        Path tmp = dir.resolve(MANIFEST + ".tmp");
+        write(tmp, sb.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(tmp, dir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error committing segment manifest in " + dir);
+        }
+    }
+
+    // версии новее манифеста - следы записи, прерванной падением; старше предыдущей - мусор
+    private void discardOrphans() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String[] parts = file.getFileName().toString().split("\\.");
+                if (parts.length != 3 || !isNumber(parts[0]) || !isNumber(parts[1])) {
+                    continue;
+                }
+                int segment = Integer.parseInt(parts[0]);
+                int version = Integer.parseInt(parts[1]);
+                Entry entry = manifest.get(segment);
+                int current = entry == null ? 0 : entry.version();
+                if (version > current) {
+                    System.out.println("⚠ Discarding unfinished write of segment " + segment + " v" + version);
+                    Files.delete(file);
+                } else if (version < current - 1) {
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error scanning segment directory " + dir);
+        }
+    }
+
+    private void write(Path file, byte[] bytes) {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error saving segment " + file);
+        }
+    }
+
+    private Path path(int segment, int version) {
+        return dir.resolve(segment + "." + version + SUFFIX);
+    }
+
+    private static boolean isNumber(String s) {
+        return !s.isEmpty() && s.chars().allMatch(Character::isDigit);
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.out.println("⚠ Could not delete old segment " + file);
+        }
+    }
+}
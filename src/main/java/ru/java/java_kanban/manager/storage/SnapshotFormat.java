@@ -0,0 +1,7 @@
+package ru.java.java_kanban.manager.storage;
+
+// формат, в котором пишется снапшот; при загрузке формат определяется по заголовку файла
+public enum SnapshotFormat {
+    CSV,
+    BINARY
+}
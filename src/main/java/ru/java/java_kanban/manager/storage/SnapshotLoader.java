@@ -0,0 +1,223 @@
+package ru.java.java_kanban.manager.storage;
+
+import ru.java.java_kanban.exceptions.ManagerSaveException;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.util.BinaryConverter;
+import ru.java.java_kanban.util.CsvConverter;
+import ru.java.java_kanban.util.CsvReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// загрузка снапшота через mmap: файл режется на чанки по границам записей,
+// чанки декодируются параллельно в ForkJoinPool, а в менеджер уходят по порядку.
+// В работе одновременно не больше окна чанков: готовый чанк сразу отдаётся менеджеру,
+// так что поверх итоговой доски в памяти лежат только задачи из окна, а не весь файл
+public final class SnapshotLoader {
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private SnapshotLoader() {
+    }
+
+    private record Chunk(int start, int end) {
+    }
+
+    public static LoadStats load(Path file, Consumer<List<Task>> batches, IntConsumer historyIds) {
+        if (!Files.exists(file)) {
+            return LoadStats.empty();
+        }
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ManagerSaveException("⚠ Snapshot is too large to map: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            boolean binary = BinaryConverter.isBinary(buffer);
+            boolean legacy = !binary && isLegacyCsv(buffer);
+            List<Chunk> chunks = binary ? binaryChunks(buffer) : csvChunks(buffer, legacy, historyIds);
+
+            int window = 2 * Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+            Deque<ForkJoinTask<List<Task>>> inFlight = new ArrayDeque<>(window);
+            Iterator<Chunk> pending = chunks.iterator();
+            long records = 0;
+            try {
+                while (pending.hasNext() || !inFlight.isEmpty()) {
+                    while (inFlight.size() < window && pending.hasNext()) {
+                        Chunk chunk = pending.next();
+                        inFlight.add(ForkJoinPool.commonPool().submit(() ->
+                                binary ? decodeBinary(buffer, chunk) : decodeCsv(buffer, chunk, legacy)));
+                    }
+                    List<Task> batch = inFlight.poll().join();
+                    batches.accept(batch);
+                    records += batch.size();
+                }
+            } finally {
+                // ошибка в чанке или в менеджере - остальные чанки уже не нужны
+                inFlight.forEach(task -> task.cancel(false));
+            }
+            return new LoadStats(binary ? SnapshotFormat.BINARY : SnapshotFormat.CSV,
+                    records, size, chunks.size(), Duration.ofNanos(System.nanoTime() - started));
+        } catch (IOException e) {
+            throw new ManagerSaveException("⚠ Error loading from file: " + file);
+        }
+    }
+
+    // последовательное декодирование уже отображённого файла целиком (сегменты шардированного хранилища)
+    public static List<Task> decode(ByteBuffer buffer) {
+        boolean binary = BinaryConverter.isBinary(buffer);
+        boolean legacy = !binary && isLegacyCsv(buffer);
+        List<Chunk> chunks = binary ? binaryChunks(buffer) : csvChunks(buffer, legacy, id -> { });
+        List<Task> tasks = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            tasks.addAll(binary ? decodeBinary(buffer, chunk) : decodeCsv(buffer, chunk, legacy));
+        }
+        return tasks;
+    }
+
+    // границы записей находятся по varint-префиксам длины, без декодирования самих записей
+    private static List<Chunk> binaryChunks(ByteBuffer buffer) {
+        BinaryConverter.readHeader(buffer.duplicate());
+        List<Chunk> chunks = new ArrayList<>();
+        int limit = buffer.limit();
+        int chunkStart = BinaryConverter.headerLength();
+        int position = chunkStart;
+        while (position < limit) {
+            position = BinaryConverter.recordEnd(buffer, position);
+            if (position - chunkStart >= CHUNK_BYTES || position >= limit) {
+                chunks.add(new Chunk(chunkStart, position));
+                chunkStart = position;
+            }
+        }
+        return chunks;
+    }
+
+    private static List<Task> decodeBinary(ByteBuffer buffer, Chunk chunk) {
+        ByteBuffer slice = buffer.slice(chunk.start(), chunk.end() - chunk.start());
+        List<Task> tasks = new ArrayList<>();
+        while (slice.hasRemaining()) {
+            tasks.add(BinaryConverter.read(slice));
+        }
+        return tasks;
+    }
+
+    // старый CSV писался без кавычек: заголовок без маркера формата, запись - ровно одна строка,
+    // и кавычка в имени - просто символ
+    private static boolean isLegacyCsv(ByteBuffer buffer) {
+        int end = lineEnd(buffer, 0);
+        byte[] header = new byte[contentLength(buffer, 0, end)];
+        buffer.get(0, header);
+        return CsvConverter.isLegacyHeader(new String(header, StandardCharsets.UTF_8));
+    }
+
+    // CSV: заголовок, задачи до пустой строки, затем строка id истории;
+    // чанки режутся по концам записей - '\n' вне кавычек (внутри поля перевод строки допустим)
+    private static List<Chunk> csvChunks(ByteBuffer buffer, boolean legacy, IntConsumer historyIds) {
+        int limit = buffer.limit();
+        int tasksStart = Math.min(lineEnd(buffer, 0) + 1, limit);
+        List<Chunk> chunks = new ArrayList<>();
+        int chunkStart = tasksStart;
+        int position = tasksStart;
+        while (position < limit) {
+            int end = legacy ? lineEnd(buffer, position) : recordEnd(buffer, position);
+            if (contentLength(buffer, position, end) == 0) {
+                parseHistory(buffer, Math.min(end + 1, limit), historyIds);
+                break;
+            }
+            position = Math.min(end + 1, limit);
+            if (position - chunkStart >= CHUNK_BYTES) {
+                chunks.add(new Chunk(chunkStart, position));
+                chunkStart = position;
+            }
+        }
+        if (position > chunkStart) {
+            chunks.add(new Chunk(chunkStart, position));
+        }
+        return chunks;
+    }
+
+    // чанк декодируется в символы целиком, поля разбирает один переиспользуемый CsvReader
+    private static List<Task> decodeCsv(ByteBuffer buffer, Chunk chunk, boolean legacy) {
+        CharBuffer chars = StandardCharsets.UTF_8.decode(buffer.slice(chunk.start(), chunk.end() - chunk.start()));
+        CsvReader reader = legacy ? new CsvReader(chars).literalQuotes() : new CsvReader(chars);
+        List<Task> tasks = new ArrayList<>();
+        try {
+            while (reader.next()) {
+                Task task = reader.isBlankRecord() ? null : CsvConverter.fromRecord(reader);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("⚠ Error decoding snapshot chunk at " + chunk.start());
+        }
+        return tasks;
+    }
+
+    // конец записи с учётом кавычек: "" внутри поля переключает состояние дважды и ничего не ломает
+    private static int recordEnd(ByteBuffer buffer, int from) {
+        int limit = buffer.limit();
+        boolean quoted = false;
+        while (from < limit) {
+            byte b = buffer.get(from);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                return from;
+            }
+            from++;
+        }
+        return from;
+    }
+
+    private static void parseHistory(ByteBuffer buffer, int start, IntConsumer historyIds) {
+        int limit = buffer.limit();
+        while (start < limit) {
+            int end = lineEnd(buffer, start);
+            int length = contentLength(buffer, start, end);
+            byte[] bytes = new byte[length];
+            buffer.get(start, bytes);
+            String line = new String(bytes, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                for (String id : line.split(",")) {
+                    if (!id.isBlank()) {
+                        historyIds.accept(Integer.parseInt(id.trim()));
+                    }
+                }
+                return;
+            }
+            start = end + 1;
+        }
+    }
+
+    // индекс '\n' (или конец буфера), начиная с from
+    private static int lineEnd(ByteBuffer buffer, int from) {
+        int limit = buffer.limit();
+        while (from < limit && buffer.get(from) != '\n') {
+            from++;
+        }
+        return from;
+    }
+
+    // длина строки без завершающего '\r'
+    private static int contentLength(ByteBuffer buffer, int start, int end) {
+        return end > start && buffer.get(end - 1) == '\r' ? end - start - 1 : end - start;
+    }
+}
@@ -0,0 +1,151 @@
+package ru.java.java_kanban.manager.storage;
+
+import ru.java.java_kanban.exceptions.ManagerSaveException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// мутации только помечают состояние грязным, отдельный поток пишет последнюю версию целиком
+public class SnapshotWriter implements AutoCloseable {
+    private static final long RETRY_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Object stateLock;
+    private final Supplier<byte[]> capture;
+    private final Consumer<byte[]> sink;
+    private final long maxPending;
+    private final Thread worker;
+    private long generation;
+    private long persisted;
+    private long flushes;
+    private Duration lastFlushLatency = Duration.ZERO;
+    private String failure;
+    private boolean running = true;
+
+    // capture вызывается под stateLock - тем же монитором, под которым идут мутации
+    public SnapshotWriter(Object stateLock,
+                          Supplier<byte[]> capture,
+                          Consumer<byte[]> sink,
+                          long maxPending) {
+        this.stateLock = stateLock;
+        this.capture = capture;
+        this.sink = sink;
+        this.maxPending = maxPending;
+        this.worker = new Thread(this::loop, "snapshot-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // вызывается под stateLock
+    public synchronized void markDirty() {
+        generation++;
+        notifyAll();
+    }
+
+    // backpressure: если диск не успевает, писатели ждут (вызывать вне stateLock)
+    public synchronized void awaitCapacity() {
+        while (running && failure == null && generation - persisted > maxPending) {
+            waitUninterruptibly();
+        }
+        throwIfFailed();
+    }
+
+    // дождаться, пока на диске окажется всё, что было помечено до вызова
+    public synchronized void flush() {
+        long target = generation;
+        while (running && failure == null && persisted < target) {
+            waitUninterruptibly();
+        }
+        throwIfFailed();
+    }
+
+    public synchronized WriterStats stats() {
+        return new WriterStats(generation - persisted, lastFlushLatency, flushes);
+    }
+
+    private void loop() {
+        while (true) {
+            synchronized (this) {
+                while (running && generation == persisted) {
+                    waitUninterruptibly();
+                }
+                if (!running) {
+                    return;
+                }
+            }
+            if (!writeLatest()) {
+                // диск отказал: не крутимся вхолостую, повторим чуть позже
+                LockSupport.parkNanos(RETRY_DELAY_NANOS);
+            }
+        }
+    }
+
+    private boolean writeLatest() {
+        byte[] snapshot;
+        long captured;
+        synchronized (stateLock) {
+            snapshot = capture.get();
+            synchronized (this) {
+                captured = generation;
+            }
+        }
+        long started = System.nanoTime();
+        try {
+            sink.accept(snapshot);
+        } catch (ManagerSaveException e) {
+            synchronized (this) {
+                failure = e.getMessage();
+                notifyAll();
+            }
+            return false;
+        }
+        synchronized (this) {
+            persisted = Math.max(persisted, captured);
+            lastFlushLatency = Duration.ofNanos(System.nanoTime() - started);
+            flushes++;
+            failure = null;
+            notifyAll();
+        }
+        return true;
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw new ManagerSaveException(failure);
+        }
+    }
+
+    private void waitUninterruptibly() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // останавливает поток и дописывает последнее состояние
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            notifyAll();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean dirty;
+        synchronized (this) {
+            dirty = generation != persisted;
+        }
+        if (dirty) {
+            writeLatest();
+        }
+    }
+}
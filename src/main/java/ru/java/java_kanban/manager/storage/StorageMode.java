@@ -0,0 +1,9 @@
+package ru.java.java_kanban.manager.storage;
+
+public enum StorageMode {
+    SNAPSHOT,
+    JOURNAL,
+    ASYNC_SNAPSHOT,
+    // id разбиты на сегменты фиксированного размера, у каждого свой файл
+    SHARDED
+}
@@ -0,0 +1,59 @@
+package ru.java.java_kanban.manager.storage;
+
+import java.time.Duration;
+
+// настройки файлового хранилища FileBackedTaskManager
+public record StorageOptions(StorageMode mode,
+                             CompactionPolicy compaction,
+                             Durability durability,
+                             Duration syncWindow,
+                             SnapshotFormat format,
+                             int segmentSize) {
+    public static final int DEFAULT_SEGMENT_SIZE = 1024;
+
+    // общий fsync на группу мутаций есть только у журнала; снапшот и сегменты синкаются на каждую
+    // запись, и GROUP_COMMIT там молча работал бы как SYNC
+    public StorageOptions {
+        if (durability == Durability.GROUP_COMMIT && mode != StorageMode.JOURNAL) {
+            throw new IllegalArgumentException("GROUP_COMMIT durability requires JOURNAL mode, got " + mode);
+        }
+    }
+
+    public static StorageOptions of(StorageMode mode) {
+        return new StorageOptions(mode, CompactionPolicy.defaults(), Durability.ASYNC, Duration.ofSeconds(1),
+                SnapshotFormat.CSV, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public static StorageOptions snapshot() {
+        return of(StorageMode.SNAPSHOT);
+    }
+
+    public static StorageOptions journal() {
+        return of(StorageMode.JOURNAL);
+    }
+
+    public static StorageOptions sharded() {
+        return of(StorageMode.SHARDED);
+    }
+
+    public StorageOptions withCompaction(CompactionPolicy compaction) {
+        return new StorageOptions(mode, compaction, durability, syncWindow, format, segmentSize);
+    }
+
+    // для GROUP_COMMIT syncWindow - окно сбора группы, для ASYNC - период fsync
+    public StorageOptions withDurability(Durability durability, Duration syncWindow) {
+        return new StorageOptions(mode, compaction, durability, syncWindow, format, segmentSize);
+    }
+
+    public StorageOptions withFormat(SnapshotFormat format) {
+        return new StorageOptions(mode, compaction, durability, syncWindow, format, segmentSize);
+    }
+
+    // сколько id подряд попадает в один файл сегмента (SHARDED)
+    public StorageOptions withSegmentSize(int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+        }
+        return new StorageOptions(mode, compaction, durability, syncWindow, format, segmentSize);
+    }
+}
@@ -0,0 +1,348 @@
+package ru.java.java_kanban.manager.storage;
+
+import ru.java.java_kanban.exceptions.ManagerSaveException;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskType;
+import ru.java.java_kanban.util.CsvConverter;
+import ru.java.java_kanban.util.CsvWriter;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// append-only журнал изменений: одна строка на мутацию, запись не зависит от размера доски.
+// Файл начинается с HEADER; журнал без него записан старой версией без кавычек и читается построчно
+public class TaskJournal implements AutoCloseable {
+    public static final String HEADER = "#journal,rfc4180";
+    private static final byte[] HEADER_LINE = (HEADER + "\n").getBytes(StandardCharsets.UTF_8);
+
+    private static final String UPSERT = "U";
+    private static final String DELETE = "D";
+    private static final String CLEAR = "C";
+    // рамка пачки: записи между BEGIN и END проигрываются только вместе
+    private static final String BEGIN = "B";
+    private static final String END = "E";
+
+    private final Path file;
+    private FileChannel channel;
+    private long records;
+    private long bytes;
+    private long sequence;
+    // буфер под текущую запись, переиспользуется (append идёт под монитором)
+    private final StringBuilder line = new StringBuilder(128);
+    private final CsvWriter writer = new CsvWriter(line);
+    // записи открытой пачки; в файл уходят одним куском в commitBatch()
+    private StringBuilder batch;
+    private long batchRecords;
+    // последний replay прочитал журнал старого формата - его надо переписать, прежде чем дописывать
+    private boolean legacy;
+
+    public TaskJournal(Path file) {
+        this.file = file;
+    }
+
+    // позиция в журнале, до которой изменения уже попали в снапшот
+    public record Mark(long position, long records) {
+    }
+
+    public interface Target {
+        void upsert(Task task);
+
+        void delete(int id);
+
+        void clear(TaskType type);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // запись может содержать переводы строк внутри кавычек, конец записи - '\n' вне кавычек
+    public synchronized long upsert(Task task) {
+        line.setLength(0);
+        line.append(UPSERT).append(',');
+        try {
+            CsvConverter.write(writer, task);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error encoding journal record for task " + task.getId());
+        }
+        return append(line);
+    }
+
+    public synchronized long delete(int id) {
+        line.setLength(0);
+        line.append(DELETE).append(',').append(id).append('\n');
+        return append(line);
+    }
+
+    public synchronized long clear(TaskType type) {
+        line.setLength(0);
+        line.append(CLEAR).append(',').append(type).append('\n');
+        return append(line);
+    }
+
+    // дальнейшие записи копятся в памяти до commitBatch()/abortBatch()
+    public synchronized void beginBatch() {
+        batch = new StringBuilder(256).append(BEGIN).append('\n');
+        batchRecords = 0;
+    }
+
+    // дописывает пачку одной записью в файл; номер получает вся пачка целиком
+    public synchronized long commitBatch() {
+        StringBuilder records = batch;
+        batch = null;
+        if (records == null || batchRecords == 0) {
+            return sequence;
+        }
+        records.append(END).append('\n');
+        return write(records, batchRecords);
+    }
+
+    public synchronized void abortBatch() {
+        batch = null;
+    }
+
+    public synchronized boolean isLegacy() {
+        return legacy;
+    }
+
+    public synchronized long records() {
+        return records;
+    }
+
+    public synchronized long size() {
+        return bytes;
+    }
+
+    // сквозной номер последней дописанной записи, не сбрасывается при сжатии
+    public synchronized long lastSequence() {
+        return sequence;
+    }
+
+    // fsync без удержания монитора, чтобы писатели могли дописывать параллельно; возвращает покрытый номер
+    public long force() {
+        while (true) {
+            FileChannel ch;
+            long covered;
+            synchronized (this) {
+                try {
+                    ch = channel();
+                } catch (IOException e) {
+                    throw new ManagerSaveException("Error syncing journal " + file);
+                }
+                covered = sequence;
+            }
+            try {
+                ch.force(false);
+                return covered;
+            } catch (ClosedChannelException e) {
+                // журнал подменили при сжатии, синкаем новый файл
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new ManagerSaveException("Interrupted while syncing journal " + file);
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Error syncing journal " + file);
+            }
+        }
+    }
+
+    public synchronized Mark mark() {
+        return new Mark(bytes, records);
+    }
+
+    // отрезает префикс до mark: хвост копируется в новый файл, который атомарно подменяет старый
+    public synchronized long discardUpTo(Mark mark) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            long tail = bytes - mark.position();
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(tmp,
+                         StandardOpenOption.CREATE,
+                         StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeHeader(out);
+                long copied = 0;
+                while (copied < tail) {
+                    copied += in.transferTo(mark.position() + copied, tail - copied, out);
+                }
+                out.force(false);
+            }
+            close();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long reclaimed = Math.max(0, bytes - HEADER_LINE.length - tail);
+            bytes = HEADER_LINE.length + tail;
+            records -= mark.records();
+            legacy = false;
+            return reclaimed;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error compacting journal " + file);
+        }
+    }
+
+    // проигрывает все целые записи; недописанный хвост (падение посреди записи) отрезается
+    public synchronized void replay(Target target) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long valid = 0;
+        long count = 0;
+        // записи открытой пачки; пачка без END (падение посреди записи) отбрасывается целиком
+        List<String> pending = null;
+        // до первой строки не ясно, кавычки это или просто символы старого формата
+        boolean first = true;
+        legacy = false;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            boolean quoted = false;
+            int b;
+            long read = 0;
+            while ((b = in.read()) != -1) {
+                read++;
+                if (b == '"' && !first && !legacy) {
+                    quoted = !quoted;
+                }
+                if (b != '\n' || quoted) {
+                    line.write(b);
+                    continue;
+                }
+                String record = line.toString(StandardCharsets.UTF_8);
+                line.reset();
+                if (first) {
+                    first = false;
+                    if (record.equals(HEADER)) {
+                        valid = read;
+                        continue;
+                    }
+                    legacy = true;
+                }
+                if (record.equals(BEGIN)) {
+                    pending = new ArrayList<>();
+                } else if (record.equals(END)) {
+                    if (pending != null) {
+                        pending.forEach(r -> apply(r, target, false));
+                        count += pending.size();
+                        pending = null;
+                    }
+                    valid = read;
+                } else if (pending != null) {
+                    pending.add(record);
+                } else {
+                    apply(record, target, legacy);
+                    valid = read;
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("⚠ Error replaying journal: " + file);
+        }
+        records = count;
+        truncateTo(valid);
+    }
+
+    private void apply(String line, Target target, boolean legacy) {
+        if (line.isBlank()) {
+            return;
+        }
+        int comma = line.indexOf(',');
+        String op = line.substring(0, comma);
+        String payload = line.substring(comma + 1);
+        switch (op) {
+            case UPSERT -> target.upsert(legacy
+                    ? CsvConverter.fromLegacyString(payload)
+                    : CsvConverter.fromCvsString(payload));
+            case DELETE -> target.delete(Integer.parseInt(payload));
+            case CLEAR -> target.clear(TaskType.valueOf(payload));
+            default -> throw new ManagerSaveException("Unknown journal record: " + line);
+        }
+    }
+
+    // после записи снапшота журнал больше не нужен
+    public synchronized void reset() {
+        truncateTo(0);
+        records = 0;
+    }
+
+    // обрезанный до нуля журнал сразу получает заголовок текущего формата
+    private void truncateTo(long length) {
+        try {
+            FileChannel ch = channel();
+            ch.truncate(length);
+            bytes = length;
+            if (length == 0) {
+                bytes = writeHeader(ch);
+                legacy = false;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error truncating journal " + file);
+        }
+    }
+
+    private long append(CharSequence record) {
+        if (batch != null) {
+            batch.append(record);
+            batchRecords++;
+            return sequence;
+        }
+        return write(record, 1);
+    }
+
+    private long write(CharSequence record, long count) {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(record));
+        try {
+            FileChannel ch = channel();
+            while (buffer.hasRemaining()) {
+                ch.write(buffer);
+            }
+            records += count;
+            bytes += buffer.limit();
+            return ++sequence;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error appending to journal " + file);
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            bytes = channel.size() == 0 ? writeHeader(channel) : channel.size();
+        }
+        return channel;
+    }
+
+    private static long writeHeader(FileChannel ch) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(HEADER_LINE);
+        while (header.hasRemaining()) {
+            ch.write(header);
+        }
+        return HEADER_LINE.length;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error closing journal " + file);
+        } finally {
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.java.java_kanban.manager.storage;
+
+import java.time.Duration;
+
+// queueDepth - мутации, ещё не попавшие на диск
+public record WriterStats(long queueDepth, Duration lastFlushLatency, long flushes) {
+}
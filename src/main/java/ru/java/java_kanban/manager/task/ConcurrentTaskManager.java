@@ -0,0 +1,462 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.manager.event.EventSubscription;
+import ru.java.java_kanban.manager.history.HistoryManager;
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// потокобезопасный менеджер с тем же контрактом, что и InMemoryTaskManager: сами правки общие (TaskBoard),
+// здесь только блокировки вокруг них.
+// Чтения идут без блокировок по concurrent-структурам. Эпик и его сабтаски правятся под полосой
+// epicLocks, выбранной по id эпика, так что разные эпики не мешают друг другу; общий только
+// индекс расписания - проверка пересечений вместе с его правкой идёт под scheduleLock.
+// Порядок захвата всегда полоса эпика -> scheduleLock -> монитор истории.
+// Наружу отдаются копии: живой эпик (список сабтасков, агрегаты) меняется под полосой, пока его читают другие потоки
+public class ConcurrentTaskManager implements TaskManager {
+    private final TaskBoard board;
+    private final StripedLock epicLocks;
+    private final ReentrantLock scheduleLock = new ReentrantLock();
+
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        this(historyManager, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentTaskManager(HistoryManager historyManager, int stripes) {
+        if (historyManager == null) {
+            throw new IllegalArgumentException("HistoryManager must not be null");
+        }
+        this.board = TaskBoard.concurrent(historyManager);
+        this.epicLocks = new StripedLock(stripes);
+    }
+
+    // статистика конкуренции по полосам блокировок эпиков
+    public List<StripedLock.StripeStats> getLockStats() {
+        return epicLocks.stats();
+    }
+
+    //All about Task
+    @Override
+    public List<Task> getAllTasks() {
+        return copyAll(board.tasks.values());
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        scheduleLock.lock();
+        try {
+            board.clearTasks();
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    @Override
+    public Task getTaskById(Integer id) {
+        Task task = copyOf(board.tasks.get(id));
+        remember(task);
+        return task;
+    }
+
+    @Override
+    public Task addTask(Task task) {
+        scheduleLock.lock();
+        try {
+            checkSchedule(task);
+            board.insertTask(task);
+        } finally {
+            scheduleLock.unlock();
+        }
+        return task;
+    }
+
+    @Override
+    public List<Task> addTasks(Collection<? extends Task> batch) {
+        List<Task> added = new ArrayList<>(batch.size());
+        scheduleLock.lock();
+        try {
+            if (board.schedule.conflicts(batch)) {
+                throw new IllegalArgumentException("Schedule conflict");
+            }
+            for (Task task : batch) {
+                board.insertTask(task);
+                added.add(task);
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
+        return added;
+    }
+
+    @Override
+    public void deleteTaskById(Integer id) {
+        scheduleLock.lock();
+        try {
+            board.removeTask(id);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        scheduleLock.lock();
+        try {
+            if (!board.tasks.containsKey(task.getId())) {
+                return;
+            }
+            checkSchedule(task);
+            board.replaceTask(task);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    //All about Epic
+    @Override
+    public List<Epic> getAllEpics() {
+        return copyAll(board.epics.values());
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        epicLocks.lockAll();
+        try {
+            scheduleLock.lock();
+            try {
+                board.clearEpics();
+            } finally {
+                scheduleLock.unlock();
+            }
+        } finally {
+            epicLocks.unlockAll();
+        }
+    }
+
+    @Override
+    public Epic getEpicById(Integer id) {
+        // в историю идёт тот же снимок: живой объект читать без блокировки нельзя
+        Epic epic = copyOf(board.epics.get(id));
+        remember(epic);
+        return epic;
+    }
+
+    // id выдаётся до вставки, чтобы эпик появился уже под своей полосой: иначе он мог бы попасть
+    // в таблицу посреди deleteAllEpics и пережить очистку без события и без снятия с индексов
+    @Override
+    public Epic addEpic(Epic epic) {
+        int id = board.newId();
+        epicLocks.lock(id);
+        try {
+            board.insertEpic(epic, id);
+        } finally {
+            epicLocks.unlock(id);
+        }
+        return epic;
+    }
+
+    @Override
+    public void deleteEpicById(Integer id) {
+        epicLocks.lock(id);
+        try {
+            scheduleLock.lock();
+            try {
+                board.removeEpic(id);
+            } finally {
+                scheduleLock.unlock();
+            }
+        } finally {
+            epicLocks.unlock(id);
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic updatedEpic) {
+        int id = updatedEpic.getId();
+        epicLocks.lock(id);
+        try {
+            Epic existingEpic = board.epics.get(id);
+            if (existingEpic != null) {
+                board.replaceEpic(existingEpic, updatedEpic);
+            }
+        } finally {
+            epicLocks.unlock(id);
+        }
+    }
+
+    //All about Subtask
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return copyAll(board.subtasks.values());
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        epicLocks.lockAll();
+        try {
+            scheduleLock.lock();
+            try {
+                board.clearSubtasks();
+            } finally {
+                scheduleLock.unlock();
+            }
+        } finally {
+            epicLocks.unlockAll();
+        }
+    }
+
+    @Override
+    public Subtask getSubtaskById(Integer id) {
+        Subtask subtask = copyOf(board.subtasks.get(id));
+        remember(subtask);
+        return subtask;
+    }
+
+    @Override
+    public Subtask addSubtask(Subtask subtask) {
+        int epicId = subtask.getEpicId();
+        epicLocks.lock(epicId);
+        try {
+            Epic epic = board.epics.get(epicId);
+            if (epic == null) {
+                throw new NoSuchElementException("Epic " + epicId + " not found");
+            }
+            scheduleLock.lock();
+            try {
+                checkSchedule(subtask);
+                board.insertSubtask(epic, subtask);
+            } finally {
+                scheduleLock.unlock();
+            }
+            board.applyAggregates(epic);
+            return subtask;
+        } finally {
+            epicLocks.unlock(epicId);
+        }
+    }
+
+    // пачка может задеть любые эпики - берутся все полосы, как у deleteAllSubtasks
+    @Override
+    public List<Subtask> addSubtasks(Collection<? extends Subtask> batch) {
+        epicLocks.lockAll();
+        try {
+            for (Subtask subtask : batch) {
+                if (!board.epics.containsKey(subtask.getEpicId())) {
+                    throw new NoSuchElementException("Epic " + subtask.getEpicId() + " not found");
+                }
+            }
+            List<Subtask> added = new ArrayList<>(batch.size());
+            Set<Epic> touched = new LinkedHashSet<>();
+            scheduleLock.lock();
+            try {
+                if (board.schedule.conflicts(batch)) {
+                    throw new IllegalArgumentException("Schedule conflict");
+                }
+                for (Subtask subtask : batch) {
+                    Epic epic = board.epics.get(subtask.getEpicId());
+                    board.insertSubtask(epic, subtask);
+                    touched.add(epic);
+                    added.add(subtask);
+                }
+            } finally {
+                scheduleLock.unlock();
+            }
+            touched.forEach(board::applyAggregates);
+            return added;
+        } finally {
+            epicLocks.unlockAll();
+        }
+    }
+
+    // полоса берётся по эпику старой версии: вклад сабтаска обновляется у эпика, в списке которого он числится
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        while (true) {
+            Subtask oldSubtask = board.subtasks.get(subtask.getId());
+            if (oldSubtask == null) {
+                return;
+            }
+            int epicId = oldSubtask.getEpicId();
+            epicLocks.lock(epicId);
+            try {
+                // пока ждали полосу, сабтаск могли удалить или перевесить на другой эпик
+                oldSubtask = board.subtasks.get(subtask.getId());
+                if (oldSubtask == null) {
+                    return;
+                }
+                if (oldSubtask.getEpicId() != epicId) {
+                    continue;
+                }
+                scheduleLock.lock();
+                try {
+                    checkSchedule(subtask);
+                    board.replaceSubtask(oldSubtask, subtask);
+                } finally {
+                    scheduleLock.unlock();
+                }
+                return;
+            } finally {
+                epicLocks.unlock(epicId);
+            }
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(Integer id) {
+        while (true) {
+            Subtask subtask = board.subtasks.get(id);
+            if (subtask == null) {
+                return;
+            }
+            int epicId = subtask.getEpicId();
+            epicLocks.lock(epicId);
+            try {
+                Subtask current = board.subtasks.get(id);
+                if (current == null) {
+                    return;
+                }
+                if (current.getEpicId() == epicId) {
+                    scheduleLock.lock();
+                    try {
+                        board.removeSubtask(id);
+                    } finally {
+                        scheduleLock.unlock();
+                    }
+                    return;
+                }
+            } finally {
+                epicLocks.unlock(epicId);
+            }
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksOfEpic(Integer epicId) {
+        // список id эпика меняется под его полосой, читать его без блокировки нельзя
+        epicLocks.lock(epicId);
+        try {
+            Epic epic = board.epics.get(epicId);
+            if (epic == null) {
+                return new ArrayList<>();
+            }
+            return copyAll(board.subtasksOf(epic));
+        } finally {
+            epicLocks.unlock(epicId);
+        }
+    }
+
+    // корзины индекса - skip-list'ы, читаются без блокировок
+    @Override
+    public List<Task> findByStatus(TaskType type, TaskStatus status) {
+        return copyAll(board.statusIndex.find(type, status));
+    }
+
+    @Override
+    public List<Task> getPage(TaskType type, TaskStatus status, int after, int limit) {
+        return copyAll(board.statusIndex.page(type, status, after, limit));
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        return copyAll(board.searchIndex.search(query, limit));
+    }
+
+    @Override
+    public EventSubscription subscribe(long afterSequence) {
+        return board.subscribe(afterSequence);
+    }
+
+    public SearchStats getSearchStats() {
+        return board.searchIndex.stats();
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return board.history().getHistory();
+    }
+
+    // снимок skip-list без блокировки: порядок по времени начала
+    @Override
+    public Set<Task> prioritizedTasks() {
+        Set<Task> result = new LinkedHashSet<>();
+        for (Task task : board.schedule.ordered()) {
+            result.add(copyOf(task));
+        }
+        return result;
+    }
+
+    // вся транзакция под всеми полосами и scheduleLock, как addSubtasks: проверка против итогового
+    // состояния и применение без проверок не перемежаются с чужими правками.
+    // Удаления идут через публичные методы и берут те же блокировки повторно
+    @Override
+    public void commit(Transaction transaction) {
+        epicLocks.lockAll();
+        try {
+            scheduleLock.lock();
+            try {
+                board.commit(transaction, this::delete);
+            } finally {
+                scheduleLock.unlock();
+            }
+        } finally {
+            epicLocks.unlockAll();
+        }
+    }
+
+    private void delete(TaskType type, int id) {
+        switch (type) {
+            case TASK -> deleteTaskById(id);
+            case EPIC -> deleteEpicById(id);
+            case SUBTASK -> deleteSubtaskById(id);
+        }
+    }
+
+    // эпик копируется под своей полосой: его список сабтасков правится на месте под ней же,
+    // и без неё копия могла бы застать список посреди сдвига
+    @SuppressWarnings("unchecked")
+    private <T extends Task> T copyOf(T task) {
+        if (task == null) {
+            return null;
+        }
+        if (task instanceof Epic epic) {
+            epicLocks.lock(epic.getId());
+            try {
+                return (T) epic.copy();
+            } finally {
+                epicLocks.unlock(epic.getId());
+            }
+        }
+        return (T) task.copy();
+    }
+
+    private <T extends Task> List<T> copyAll(Collection<T> source) {
+        List<T> result = new ArrayList<>(source.size());
+        for (T task : source) {
+            result.add(copyOf(task));
+        }
+        return result;
+    }
+
+    // вызывается под scheduleLock
+    private void checkSchedule(Task task) {
+        if (board.schedule.conflicts(task)) {
+            throw new IllegalArgumentException("Schedule conflict");
+        }
+    }
+
+    private void remember(Task task) {
+        if (task != null) {
+            board.history().add(task);
+        }
+    }
+}
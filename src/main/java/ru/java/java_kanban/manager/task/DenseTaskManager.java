@@ -0,0 +1,27 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.manager.history.HistoryManager;
+import ru.java.java_kanban.util.DenseArrayMap;
+
+// InMemoryTaskManager поверх одной DenseArrayMap на все типы: id выдаются подряд, поэтому задача лежит
+// прямо в ячейке своего id. getAll* отдают задачи по возрастанию id при любом числе удалений
+public class DenseTaskManager extends InMemoryTaskManager {
+
+    public DenseTaskManager(HistoryManager historyManager) {
+        super(historyManager, TaskStorage.DENSE);
+    }
+
+    // свободные ячейки в выделенных чанках общей таблицы: только дыры от удалений
+    public int getFreeSlots() {
+        return table().freeSlots();
+    }
+
+    // отдаёт хвост каталога чанков, оставшийся после массовых удалений
+    public void compact() {
+        table().compact();
+    }
+
+    private DenseArrayMap<?> table() {
+        return ((TypedTaskView<?>) tasks).table();
+    }
+}
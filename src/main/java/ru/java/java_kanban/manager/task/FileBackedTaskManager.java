@@ -1,224 +1,650 @@
 package ru.java.java_kanban.manager.task;
 
-import ru.java.java_kanban.exceptions.BrokenTaskLinkException;
 import ru.java.java_kanban.exceptions.ManagerSaveException;
 import ru.java.java_kanban.manager.history.HistoryManager;
+import ru.java.java_kanban.manager.history.JournaledHistoryManager;
+import ru.java.java_kanban.manager.storage.CompactionStats;
+import ru.java.java_kanban.manager.storage.Durability;
+import ru.java.java_kanban.manager.storage.HistoryJournal;
+import ru.java.java_kanban.manager.storage.JournalCompactor;
+import ru.java.java_kanban.manager.storage.JournalFlusher;
+import ru.java.java_kanban.manager.storage.LoadStats;
+import ru.java.java_kanban.manager.storage.SegmentStore;
+import ru.java.java_kanban.manager.storage.SnapshotLoader;
+import ru.java.java_kanban.manager.storage.SnapshotFormat;
+import ru.java.java_kanban.manager.storage.SnapshotWriter;
+import ru.java.java_kanban.manager.storage.StorageMode;
+import ru.java.java_kanban.manager.storage.StorageOptions;
+import ru.java.java_kanban.manager.storage.TaskJournal;
+import ru.java.java_kanban.manager.storage.WriterStats;
 import ru.java.java_kanban.model.Epic;
 import ru.java.java_kanban.model.Subtask;
 import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
 import ru.java.java_kanban.model.TaskType;
+import ru.java.java_kanban.util.BinaryConverter;
 import ru.java.java_kanban.util.CsvConverter;
+import ru.java.java_kanban.util.CsvWriter;
 
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.function.Supplier;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    // столько мутаций может ждать фоновой записи, дальше писатели притормаживают
+    private static final long MAX_PENDING_WRITES = 10_000;
 
     private final Path file;
+    private final TaskJournal journal;
+    private final JournalCompactor compactor;
+    private final JournalFlusher flusher;
+    private final SnapshotWriter snapshotWriter;
+    private final SegmentStore segments;
+    private final JournaledHistoryManager history;
+    // сегменты, изменённые текущей мутацией; сбрасываются на диск в конце внешнего mutate
+    private final BitSet dirtySegments = new BitSet();
+    private final Durability durability;
+    private final SnapshotFormat format;
+    private final Object compactionLock = new Object();
+    private boolean restoring;
+    private LoadStats loadStats = LoadStats.empty();
+    private int depth;
+    // снапшот переписывается один раз на внешнюю мутацию, сколько бы задач она ни затронула
+    private boolean snapshotPending;
 
     public FileBackedTaskManager(HistoryManager historyManager, Path file) {
-        super(historyManager);
-        this.file = file;
-        loadFromFile();
+        this(historyManager, file, StorageOptions.snapshot());
     }
 
-    private void save() {
-        List<String> lines = new ArrayList<>();
-        lines.add("id,type,name,status,description,startTime,endTime,durationMinutes,epic");
+    public FileBackedTaskManager(HistoryManager historyManager, Path file, StorageMode mode) {
+        this(historyManager, file, StorageOptions.of(mode));
+    }
 
-        lines.addAll(getAllTasks().stream()
-                .map(CsvConverter::toCsvString)
-                .toList());
+    public FileBackedTaskManager(HistoryManager historyManager, Path file, StorageOptions options) {
+        super(new JournaledHistoryManager(historyManager, new HistoryJournal(historyPath(file))), TaskStorage.HASH, true);
+        this.history = (JournaledHistoryManager) this.historyManager;
+        this.file = file;
+        this.durability = options.durability();
+        this.format = options.format();
+        this.journal = options.mode() == StorageMode.JOURNAL ? new TaskJournal(journalPath(file)) : null;
+        this.segments = options.mode() == StorageMode.SHARDED
+                ? new SegmentStore(segmentsPath(file), options.segmentSize(), format, durability != Durability.ASYNC)
+                : null;
+        restoring = true;
+        history.setMuted(true);
+        try {
+            loadFromFile();
+            replayJournal();
+            // агрегаты эпиков считаются один раз, после снапшота и журнала
+            epics.values().forEach(this::recalcEpic);
+            rebuildSearchIndex();
+            history.replay(this::findById);
+            // история из строки старого снапшота переносится в журнал, иначе потеряется при следующем запуске
+            if (history.journalRecords() == 0 && !historyManager.getHistory().isEmpty()) {
+                history.compact();
+            }
+            // журнал старого формата без кавычек: новые записи в него дописывать нельзя, переписываем сразу
+            if (journal != null && journal.isLegacy()) {
+                compact();
+            }
+        } finally {
+            restoring = false;
+            history.setMuted(false);
+            setEventsMuted(false);
+        }
+        this.compactor = journal != null
+                ? JournalCompactor.start(journal, options.compaction(), this::compact)
+                : null;
+        this.flusher = journal != null
+                ? JournalFlusher.start(journal, durability, options.syncWindow())
+                : null;
+        this.snapshotWriter = options.mode() == StorageMode.ASYNC_SNAPSHOT
+                ? new SnapshotWriter(this, this::snapshotBytes,
+                        snapshot -> writeSnapshot(snapshot, durability != Durability.ASYNC), MAX_PENDING_WRITES)
+                : null;
+    }
 
-        lines.addAll(getAllEpics().stream()
-                .map(CsvConverter::toCsvString)
-                .toList());
+    public static Path journalPath(Path file) {
+        return file.resolveSibling(file.getFileName() + ".journal");
+    }
 
-        lines.addAll(getAllSubtasks().stream()
-                .map(CsvConverter::toCsvString)
-                .toList());
+    public static Path historyPath(Path file) {
+        return file.resolveSibling(file.getFileName() + ".history");
+    }
 
+    public static Path segmentsPath(Path file) {
+        return file.resolveSibling(file.getFileName() + ".segments");
+    }
 
-        try {
-            Files.write(file,
-                    lines,
-                    StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING);
-        } catch (IOException e) {
-            throw new ManagerSaveException("Error saving to file" + file);
+    // синхронно пишет полный снапшот и отрезает учтённую часть журнала
+    public CompactionStats checkpoint() {
+        if (snapshotWriter != null) {
+            long started = System.nanoTime();
+            snapshotWriter.flush();
+            return new CompactionStats(Duration.ofNanos(System.nanoTime() - started), 0, 0, Instant.now());
         }
+        if (journal == null) {
+            long started = System.nanoTime();
+            synchronized (this) {
+                if (segments != null) {
+                    segments.segments().forEach(dirtySegments::set);
+                    flushSegments();
+                } else {
+                    save();
+                }
+            }
+            return new CompactionStats(Duration.ofNanos(System.nanoTime() - started), 0, 0, Instant.now());
+        }
+        // неудачное фоновое сжатие всплывает здесь: журнал цел, следующий checkpoint сожмёт его заново
+        compactor.rethrowFailure();
+        CompactionStats stats = compact();
+        compactor.recordRun(stats);
+        return stats;
     }
 
-    private List<String> readTasksLines(BufferedReader reader) throws IOException {
-        List<String> lines = new ArrayList<>();
-        String line;
-        while ((line = reader.readLine()) != null && !line.isEmpty()) {
-            lines.add(line);
-        }
-        return lines;
+    // сколько fsync журнала сделано: при GROUP_COMMIT заметно меньше числа мутаций
+    public long getJournalSyncCount() {
+        return flusher == null ? 0 : flusher.syncCount();
     }
 
-    private int parseTaskIds(List<String> lines) {
-        Map<Integer, Task> tasksToRestore = new HashMap<>();
-        List<Subtask> subtasksToRestore = new ArrayList<>();
+    public WriterStats getWriterStats() {
+        return snapshotWriter == null ? null : snapshotWriter.stats();
+    }
 
-        List<Task> parsed = lines.stream()
-                .map(CsvConverter::fromCvsString)
-                .toList();
+    // номер сегмента -> текущая версия его файла (SHARDED)
+    public synchronized Map<Integer, Integer> getSegmentVersions() {
+        return segments == null ? Map.of() : segments.versions();
+    }
 
-        int maxId = parsed.stream()
-                .mapToInt(Task::getId)
-                .max()
-                .orElse(0);
+    public CompactionStats getLastCompaction() {
+        return compactor == null ? null : compactor.getLastRun();
+    }
 
-        parsed.forEach(task -> {
-            if (Objects.requireNonNull(task.getType()) == TaskType.SUBTASK) {
-                subtasksToRestore.add((Subtask) task);
-            } else {
-                tasksToRestore.put(task.getId(), task);
+    // под блокировкой только снимается состояние; запись файла идёт без неё, писатели не ждут диск
+    private CompactionStats compact() {
+        synchronized (compactionLock) {
+            long started = System.nanoTime();
+            byte[] snapshot;
+            TaskJournal.Mark mark;
+            synchronized (this) {
+                snapshot = snapshotBytes();
+                mark = journal.mark();
             }
-        });
+            writeSnapshot(snapshot, true);
+            long reclaimed = journal.discardUpTo(mark);
+            CompactionStats stats = new CompactionStats(
+                    Duration.ofNanos(System.nanoTime() - started),
+                    reclaimed,
+                    mark.records(),
+                    Instant.now());
+            return stats;
+        }
+    }
 
-        tasksToRestore.values().forEach(task -> {
-            if (task.getType() == TaskType.TASK) {
-                this.tasks.put(task.getId(), task);
-            } else if (task.getType() == TaskType.EPIC) {
-                this.epics.put(task.getId(), (Epic) task);
-            } else {
-                throw new ManagerSaveException("Invalid task type");
+    @Override
+    public void close() {
+        if (snapshotWriter != null) {
+            snapshotWriter.close();
+        }
+        if (compactor != null) {
+            compactor.close();
+        }
+        if (flusher != null) {
+            flusher.close();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        history.close();
+    }
+
+    private void replayJournal() {
+        if (journal == null) {
+            return;
+        }
+        journal.replay(new TaskJournal.Target() {
+            @Override
+            public void upsert(Task task) {
+                restore(task);
+            }
+
+            @Override
+            public void delete(int id) {
+                if (tasks.containsKey(id)) {
+                    FileBackedTaskManager.super.deleteTaskById(id);
+                } else if (epics.containsKey(id)) {
+                    FileBackedTaskManager.super.deleteEpicById(id);
+                } else {
+                    FileBackedTaskManager.super.deleteSubtaskById(id);
+                }
             }
-        });
 
-        subtasksToRestore.forEach(subtask -> {
-            this.subtasks.put(subtask.getId(), subtask);
-            Epic epic = epics.get(subtask.getEpicId());
-            if (epic != null) {
-                epic.addSubtaskIds(subtask.getId());
-                recalcEpic(epic);
-            } else {
-                throw new BrokenTaskLinkException("⚠ Subtask " + subtask.getId()
-                        + " has missed: there is no epic with id=" + subtask.getEpicId());
+            @Override
+            public void clear(TaskType type) {
+                switch (type) {
+                    case TASK -> FileBackedTaskManager.super.deleteAllTasks();
+                    case EPIC -> FileBackedTaskManager.super.deleteAllEpics();
+                    case SUBTASK -> FileBackedTaskManager.super.deleteAllSubtasks();
+                }
             }
         });
+    }
 
-        return maxId;
+    // в режиме журнала дописывает одну запись, иначе переписывает файл целиком
+    private void saved(Task task) {
+        if (restoring || task == null) {
+            return;
+        }
+        if (journal != null) {
+            journal.upsert(task);
+            compactor.afterAppend();
+        } else if (segments != null) {
+            dirtySegments.set(segments.segmentOf(task.getId()));
+        } else {
+            snapshotChanged();
+        }
     }
 
-    private void parseHistory(BufferedReader reader) throws IOException {
-        String line = reader.readLine();
+    private void deleted(Integer id) {
+        if (restoring || id == null) {
+            return;
+        }
+        if (journal != null) {
+            journal.delete(id);
+            compactor.afterAppend();
+        } else if (segments != null) {
+            dirtySegments.set(segments.segmentOf(id));
+        } else {
+            snapshotChanged();
+        }
+    }
 
-        if ((line = reader.readLine()) != null && !line.isBlank()) {
-            String[] fields = line.split(",");
-            Stream.of(fields)
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .map(Integer::parseInt)
-                    .map(this::getTaskById)
-                    .filter(Objects::nonNull)
-                    .forEach(historyManager::add);
+    private void cleared(TaskType type) {
+        if (restoring) {
+            return;
+        }
+        if (journal != null) {
+            journal.clear(type);
+            compactor.afterAppend();
+        } else if (segments != null) {
+            // какие id удалены, уже не узнать - переписываются все сегменты
+            segments.segments().forEach(dirtySegments::set);
+        } else {
+            snapshotChanged();
         }
     }
 
-    private void loadFromFile() {
-        if (!Files.exists(file)) {
+    private void snapshotChanged() {
+        if (snapshotWriter != null) {
+            snapshotWriter.markDirty();
+        } else {
+            snapshotPending = true;
+        }
+    }
+
+    // переписывает только сегменты, затронутые мутацией; все - одной фиксацией манифеста
+    private void flushSegments() {
+        if (dirtySegments.isEmpty()) {
             return;
         }
+        Map<Integer, byte[]> dirty = new TreeMap<>();
+        for (int segment = dirtySegments.nextSetBit(0); segment >= 0; segment = dirtySegments.nextSetBit(segment + 1)) {
+            List<Task> records = new ArrayList<>();
+            int first = segments.firstId(segment);
+            for (int id = first; id < first + segments.segmentSize(); id++) {
+                Task task = findById(id);
+                if (task != null) {
+                    records.add(task);
+                }
+            }
+            dirty.put(segment, encode(records));
+        }
+        // отметки снимаются только после фиксации: при ошибке следующая мутация перепишет и эти сегменты
+        segments.commit(dirty);
+        dirtySegments.clear();
+    }
+
+    private void save() {
+        writeSnapshot(snapshotBytes(), durability != Durability.ASYNC);
+    }
 
-        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
-            reader.readLine();
-            List<String> taskLines = readTasksLines(reader);
-            int maxId = parseTaskIds(taskLines);
-            parseHistory(reader);
-            setNextId(maxId + 1);
-            System.out.println("File loaded successfully! " + file.getFileName());
+    private byte[] snapshotBytes() {
+        List<Task> all = new ArrayList<>(getAllTasks());
+        all.addAll(getAllEpics());
+        all.addAll(getAllSubtasks());
+        return encode(all);
+    }
 
+    private byte[] encode(List<Task> records) {
+        if (format == SnapshotFormat.BINARY) {
+            return BinaryConverter.toBytes(records);
+        }
+        // все записи идут через один Writer, без промежуточной строки на задачу
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * records.size() + 128);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            CsvWriter csv = new CsvWriter(writer);
+            CsvConverter.writeHeader(writer);
+            for (Task task : records) {
+                CsvConverter.write(csv, task);
+            }
         } catch (IOException e) {
-            throw new ManagerSaveException("⚠ Error loading from file: " + file);
+            throw new ManagerSaveException("Error encoding snapshot " + file);
+        }
+        return out.toByteArray();
+    }
+
+    // пишет во временный файл и атомарно подменяет, чтобы падение не оставило полуснапшот
+    private void writeSnapshot(byte[] snapshot, boolean fsync) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(tmp,
+                    snapshot,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            if (fsync) {
+                try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Error saving to file" + file);
+        }
+    }
+
+    private void loadFromFile() {
+        List<Integer> historyIds = new ArrayList<>();
+        loadStats = segments != null
+                ? segments.load(this::restoreAll)
+                : SnapshotLoader.load(file, this::restoreAll, historyIds::add);
+        linkRestored();
+        historyIds.stream()
+                .map(this::findById)
+                .filter(Objects::nonNull)
+                .forEach(historyManager::add);
+        if (loadStats.records() > 0) {
+            System.out.println("File loaded successfully! " + file.getFileName() + " ("
+                    + loadStats.records() + " records in " + loadStats.elapsed().toMillis() + " ms)");
+        }
+    }
+
+    private Task findById(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
         }
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        return task;
+    }
+
+    // время холодного старта: загрузка снапшота без учёта проигрывания журнала
+    public LoadStats getLoadStats() {
+        return loadStats;
+    }
+
+    // мутация под монитором; ожидание fsync - уже без него, чтобы конкурентные записи собирались в группу
+    private <R> R mutate(Supplier<R> mutation) {
+        long sequence;
+        R result;
+        synchronized (this) {
+            depth++;
+            try {
+                result = mutation.get();
+            } finally {
+                depth--;
+                if (depth == 0 && snapshotPending) {
+                    snapshotPending = false;
+                    save();
+                }
+            }
+            if (depth > 0) {
+                return result;
+            }
+            if (segments != null) {
+                flushSegments();
+            }
+            sequence = journal != null ? journal.lastSequence() : 0;
+        }
+        if (flusher != null) {
+            flusher.await(sequence);
+        }
+        if (snapshotWriter != null) {
+            snapshotWriter.awaitCapacity();
+        }
+        return result;
+    }
+
+    private void mutate(Runnable mutation) {
+        mutate(() -> {
+            mutation.run();
+            return null;
+        });
     }
 
     //ABOUT TASK
+    @Override
+    public synchronized List<Task> getAllTasks() {
+        return super.getAllTasks();
+    }
+
+    @Override
+    public synchronized Task getTaskById(Integer id) {
+        return super.getTaskById(id);
+    }
+
     @Override
     public Task addTask(Task task) {
-        Task added = super.addTask(task);
-        save();
-        return added;
+        return mutate(() -> {
+            Task added = super.addTask(task);
+            saved(added);
+            return added;
+        });
+    }
+
+    @Override
+    public List<Task> addTasks(Collection<? extends Task> batch) {
+        return mutate(() -> {
+            List<Task> added = super.addTasks(batch);
+            added.forEach(this::saved);
+            return added;
+        });
     }
 
     @Override
     public void deleteTaskById(Integer id) {
-        super.deleteTaskById(id);
-        save();
+        mutate(() -> {
+            super.deleteTaskById(id);
+            deleted(id);
+        });
     }
 
     @Override
     public void updateTask(Task task) {
-        super.updateTask(task);
-        save();
+        mutate(() -> {
+            super.updateTask(task);
+            if (tasks.get(task.getId()) == task) {
+                saved(task);
+            }
+        });
     }
 
     @Override
     public void deleteAllTasks() {
-        super.deleteAllTasks();
-        save();
+        mutate(() -> {
+            super.deleteAllTasks();
+            cleared(TaskType.TASK);
+        });
     }
 
     //ABOUT EPICS
+    @Override
+    public synchronized List<Epic> getAllEpics() {
+        return super.getAllEpics();
+    }
+
+    @Override
+    public synchronized Epic getEpicById(Integer id) {
+        return super.getEpicById(id);
+    }
+
     @Override
     public void deleteAllEpics() {
-        super.deleteAllEpics();
-        save();
+        mutate(() -> {
+            super.deleteAllEpics();
+            cleared(TaskType.EPIC);
+        });
     }
 
     @Override
     public Epic addEpic(Epic epic) {
-        super.addEpic(epic);
-        save();
-        return epic;
+        return mutate(() -> {
+            super.addEpic(epic);
+            saved(epic);
+            return epic;
+        });
     }
 
     @Override
     public void deleteEpicById(Integer id) {
-        super.deleteEpicById(id);
-        save();
+        mutate(() -> {
+            Epic epic = epics.get(id);
+            super.deleteEpicById(id);
+            deleted(id);
+            // каскад в журнал не пишется - его повторит проигрывание удаления эпика; а сабтаски могут лежать
+            // в других сегментах, чем эпик
+            if (epic != null && segments != null) {
+                epic.getSubtaskIds().forEach(this::deleted);
+            }
+        });
     }
 
     @Override
     public void updateEpic(Epic updatedEpic) {
-        super.updateEpic(updatedEpic);
-        save();
+        mutate(() -> {
+            super.updateEpic(updatedEpic);
+            saved(epics.get(updatedEpic.getId()));
+        });
     }
 
     //ABOUT SUBTASKS
+    @Override
+    public synchronized List<Subtask> getAllSubtasks() {
+        return super.getAllSubtasks();
+    }
+
+    @Override
+    public synchronized Subtask getSubtaskById(Integer id) {
+        return super.getSubtaskById(id);
+    }
+
     @Override
     public void deleteAllSubtasks() {
-        super.deleteAllSubtasks();
-        save();
+        mutate(() -> {
+            super.deleteAllSubtasks();
+            cleared(TaskType.SUBTASK);
+        });
     }
 
     @Override
     public Subtask addSubtask(Subtask subtask) {
-        super.addSubtask(subtask);
-        save();
-        return subtask;
+        return mutate(() -> {
+            super.addSubtask(subtask);
+            saved(subtask);
+            return subtask;
+        });
+    }
+
+    @Override
+    public List<Subtask> addSubtasks(Collection<? extends Subtask> batch) {
+        return mutate(() -> {
+            List<Subtask> added = super.addSubtasks(batch);
+            added.forEach(this::saved);
+            return added;
+        });
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
-        super.updateSubtask(subtask);
-        save();
+        mutate(() -> {
+            super.updateSubtask(subtask);
+            if (subtasks.get(subtask.getId()) == subtask) {
+                saved(subtask);
+            }
+        });
     }
 
     @Override
     public void deleteSubtaskById(Integer id) {
-        super.deleteSubtaskById(id);
-        save();
+        mutate(() -> {
+            super.deleteSubtaskById(id);
+            deleted(id);
+        });
+    }
+
+    // вся транзакция - одна мутация: снапшот или сегменты пишутся один раз, в журнал она уходит одной пачкой
+    @Override
+    public void commit(Transaction transaction) {
+        mutate(() -> {
+            if (journal != null) {
+                journal.beginBatch();
+            }
+            try {
+                super.commit(transaction);
+                // удаления записались сами через deleteXById; задача, удалённая позже в той же транзакции, уже не живая
+                for (Transaction.Op op : transaction.ops()) {
+                    if (op.task() != null) {
+                        saved(findById(op.task().getId()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (journal != null) {
+                    journal.abortBatch();
+                }
+                throw e;
+            }
+            if (journal != null) {
+                journal.commitBatch();
+            }
+        });
+    }
+
+    @Override
+    public synchronized List<Subtask> getSubtasksOfEpic(Integer epicId) {
+        return super.getSubtasksOfEpic(epicId);
+    }
+
+    @Override
+    public synchronized List<Task> findByStatus(TaskType type, TaskStatus status) {
+        return super.findByStatus(type, status);
+    }
+
+    @Override
+    public synchronized List<Task> getPage(TaskType type, TaskStatus status, int after, int limit) {
+        return super.getPage(type, status, after, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return super.getHistory();
+    }
+
+    // копия под монитором: сериализация в HTTP идёт уже без блокировки
+    @Override
+    public synchronized Set<Task> prioritizedTasks() {
+        return super.prioritizedTasks();
     }
 }
@@ -1,125 +1,146 @@
 package ru.java.java_kanban.manager.task;
 
+import ru.java.java_kanban.exceptions.BrokenTaskLinkException;
+import ru.java.java_kanban.manager.event.EventSubscription;
 import ru.java.java_kanban.manager.history.HistoryManager;
 import ru.java.java_kanban.model.*;
+import ru.java.java_kanban.util.IntHashMap;
+import ru.java.java_kanban.util.IntList;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class InMemoryTaskManager implements TaskManager {
     protected final HistoryManager historyManager;
 
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
-    private int nextId = 1;
-    private final Set<Task> prioritizedTasks = new TreeSet<>(
-            Comparator
-                    .comparing(Task::getStartTime,
-                            Comparator.nullsLast(Comparator.naturalOrder()))
-                    .thenComparing(Task::getEndTime,
-                            Comparator.nullsLast(Comparator.naturalOrder()))
-                    .thenComparingInt(Task::getId)
-    );
+    // таблицы по int-ключу (см. TaskStorage): без Integer и узла на каждую задачу
+    protected final Map<Integer, Task> tasks;
+    protected final Map<Integer, Epic> epics;
+    protected final Map<Integer, Subtask> subtasks;
+    // таблицы, индексы, события и все правки над ними; общие с ConcurrentTaskManager
+    private final TaskBoard board;
 
     public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, TaskStorage.HASH);
+    }
+
+    protected InMemoryTaskManager(HistoryManager historyManager, TaskStorage storage) {
+        this(historyManager, storage, false);
+    }
+
+    // eventsMuted = true: наследник сначала восстанавливает состояние, события включает сам после загрузки
+    protected InMemoryTaskManager(HistoryManager historyManager, TaskStorage storage, boolean eventsMuted) {
         if (historyManager == null) {
             throw new IllegalArgumentException("HistoryManager must not be null");
         }
         this.historyManager = historyManager;
+        this.board = TaskBoard.of(storage, historyManager, eventsMuted);
+        this.tasks = board.tasks;
+        this.epics = board.epics;
+        this.subtasks = board.subtasks;
     }
 
     protected void setNextId(int newNextId) {
-        this.nextId = newNextId;
-    }
-
-    // сумма длительностей
-    private Duration getTotalDuration(List<Subtask> sts) {
-        boolean anyDuration = sts.stream()
-                .anyMatch(st -> st != null
-                        && st.getDuration() != null);
-        if (!anyDuration) {
-            return null;
-        }
-        long minutes = sts.stream()
-                .map(Subtask::getDuration)
-                .filter(Objects::nonNull)
-                .mapToLong(Duration::toMinutes)
-                .sum();
-        return Duration.ofMinutes(minutes);
+        board.setNextId(newNextId);
     }
 
-
-    // минимальный старт и максимальный конец среди сабтасков
-    private LocalDateTime getMinStart(List<Subtask> sts) {
-        return sts.stream()
-                .map(Subtask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
+    protected void setEventsMuted(boolean muted) {
+        board.setEventsMuted(muted);
     }
 
-    private LocalDateTime getMaxEnd(List<Subtask> sts) {
-        return sts.stream()
-                .map(Subtask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
+    // кладёт задачу с уже известным id (загрузка из файла/журнала), эпики пересчитывает вызывающий
+    protected void restore(Task task) {
+        int id = task.getId();
+        switch (task.getType()) {
+            case TASK -> tasks.put(id, task);
+            case EPIC -> {
+                Epic epic = (Epic) task;
+                Epic old = epics.put(id, epic);
+                if (old != null) {
+                    epic.setSubtaskIds(old.getSubtaskIds());
+                }
+            }
+            case SUBTASK -> {
+                Subtask subtask = (Subtask) task;
+                Epic epic = epics.get(subtask.getEpicId());
+                if (epic == null) {
+                    throw new BrokenTaskLinkException("⚠ Subtask " + id
+                            + " has missed: there is no epic with id=" + subtask.getEpicId());
+                }
+                subtasks.put(id, subtask);
+                epic.addSubtaskIds(id);
+            }
+        }
+        if (task.getType() != TaskType.EPIC) {
+            board.schedule.put(task);
+        }
+        board.statusIndex.put(task);
+        board.reserveId(id);
     }
 
-    private TaskStatus calculateEpicStatus(List<Subtask> sts) {
-        if (sts == null || sts.isEmpty()) {
-            return TaskStatus.NEW;               // пустой эпик = NEW
+    // массовая загрузка снапшота: задачи кладутся без связывания с эпиками, связи строит linkRestored()
+    protected void restoreAll(List<? extends Task> batch) {
+        for (Task task : batch) {
+            int id = task.getId();
+            switch (task.getType()) {
+                case TASK -> tasks.put(id, task);
+                case EPIC -> epics.put(id, (Epic) task);
+                case SUBTASK -> subtasks.put(id, (Subtask) task);
+            }
+            if (task.getType() != TaskType.EPIC) {
+                board.schedule.put(task);
+            }
+            board.statusIndex.put(task);
+            board.reserveId(id);
         }
+    }
 
-        boolean allNew  = sts.stream().allMatch(s -> s.getStatus() == TaskStatus.NEW);
-        if (allNew) {
-            return TaskStatus.NEW;               // все NEW
+    // один проход по сабтаскам вместо addSubtaskIds на каждый (там contains по списку);
+    // агрегаты эпиков не считает - это делается один раз в конце загрузки
+    protected void linkRestored() {
+        IntHashMap<IntList> byEpic = new IntHashMap<>(epics.size());
+        for (Subtask subtask : subtasks.values()) {
+            if (!epics.containsKey(subtask.getEpicId())) {
+                throw new BrokenTaskLinkException("⚠ Subtask " + subtask.getId()
+                        + " has missed: there is no epic with id=" + subtask.getEpicId());
+            }
+            IntList ids = byEpic.get(subtask.getEpicId());
+            if (ids == null) {
+                ids = new IntList();
+                byEpic.putInt(subtask.getEpicId(), ids);
+            }
+            ids.addInt(subtask.getId());
         }
-
-        boolean allDone = sts.stream().allMatch(s -> s.getStatus() == TaskStatus.DONE);
-        if (allDone) {
-            return TaskStatus.DONE;              // все DONE
+        for (Epic epic : epics.values()) {
+            IntList ids = byEpic.get(epic.getId().intValue());
+            if (ids == null) {
+                ids = new IntList();
+            }
+            ids.sort();
+            epic.setSubtaskIds(ids);
         }
+    }
 
-        // хотя бы один IN_PROGRESS
-        return TaskStatus.IN_PROGRESS;
+    // сборка поискового индекса по всем задачам разом, разбор текста параллельный
+    protected SearchStats rebuildSearchIndex() {
+        List<Task> all = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        all.addAll(tasks.values());
+        all.addAll(epics.values());
+        all.addAll(subtasks.values());
+        return board.searchIndex.rebuild(all);
     }
 
+    public SearchStats getSearchStats() {
+        return board.searchIndex.stats();
+    }
 
-    // оркестратор
+    // полный пересчёт агрегатов эпика (загрузка); правки сабтасков обновляют их инкрементально
     protected void recalcEpic(Epic epic) {
-        List<Subtask> sts = getSubtasksOfEpic(epic.getId());
-        epic.setDuration(getTotalDuration(sts));
-        epic.setStartTime(getMinStart(sts));
-        epic.setEndTime(getMaxEnd(sts));
-        epic.setStatus(calculateEpicStatus(sts));
-    }
-
-    private static boolean hasOverlaps(Task x, Task y) {
-        // пересекаются, если x.start < y.end И y.start < x.end
-        // по методу отрезков
-        if (!x.hasSchedule() || !y.hasSchedule()) {
-            return false;
-        }
-        return x.getStartTime().isBefore(y.getEndTime())
-                && y.getStartTime().isBefore(x.getEndTime());
+        board.recalcEpic(epic);
     }
 
-    // сравнивает кандидата со всеми существующими задачами/сабтасками
+    // O(log n) через индекс расписания вместо прохода по всем задачам
     private boolean hasOverlaps(Task candidate) {
-        if (!candidate.hasSchedule()) {
-            return false;
-        }
-
-        return Stream.concat(tasks.values().stream(), subtasks.values().stream())
-                .filter(Task::hasSchedule)                             // сравнение только с интервалами
-                // не сравнивает с самим собой при обновлении
-                .filter(t -> !Objects.equals(t.getId(), candidate.getId()))
-                .anyMatch(other -> hasOverlaps(candidate, other)); // использует парный предикат
+        return board.schedule.conflicts(candidate);
     }
 
     //All about Task
@@ -130,9 +151,7 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllTasks() {
-        prioritizedTasks.removeIf(t -> t.getType() == TaskType.TASK);
-        tasks.keySet().stream().forEach(historyManager::remove);
-        tasks.clear();
+        board.clearTasks();
     }
 
     @Override
@@ -149,21 +168,27 @@ public class InMemoryTaskManager implements TaskManager {
         if (hasOverlaps(task)) {
             throw new IllegalArgumentException("Schedule conflict");
         }
-        task.setId(nextId++);
-        tasks.put(task.getId(), task);
-        if (task.hasSchedule()) {
-            prioritizedTasks.add(task);
-        }
+        board.insertTask(task);
         return task;
     }
 
+    // пачка проверяется целиком до вставки: при конфликте не добавляется ничего
     @Override
-    public void deleteTaskById(Integer id) {
-        Task task = tasks.remove(id);
-        if (task != null && task.hasSchedule()) {
-            prioritizedTasks.remove(task);
+    public List<Task> addTasks(Collection<? extends Task> batch) {
+        if (board.schedule.conflicts(batch)) {
+            throw new IllegalArgumentException("Schedule conflict");
+        }
+        List<Task> added = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            board.insertTask(task);
+            added.add(task);
         }
-        historyManager.remove(id);
+        return added;
+    }
+
+    @Override
+    public void deleteTaskById(Integer id) {
+        board.removeTask(id);
     }
 
     @Override
@@ -175,13 +200,7 @@ public class InMemoryTaskManager implements TaskManager {
         if (hasOverlaps(task)) {
             throw new IllegalArgumentException("Schedule conflict");
         }
-        if (old.hasSchedule()) {
-            prioritizedTasks.remove(old);
-        }
-        tasks.put(task.getId(), task);
-        if (task.hasSchedule()) {
-            prioritizedTasks.add(task);
-        }
+        board.replaceTask(task);
     }
 
     //All about Epic
@@ -192,13 +211,7 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllEpics() {
-        epics.values().stream()
-                .flatMap(e -> e.getSubtaskIds().stream())
-                .toList()
-                .forEach(this::deleteSubtaskById);
-
-        epics.keySet().stream().forEach(historyManager::remove);
-        epics.clear();
+        board.clearEpics();
     }
 
     @Override
@@ -212,20 +225,13 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Epic addEpic(Epic epic) {
-        epic.setId(nextId++);
-        epics.put(epic.getId(), epic);
+        board.insertEpic(epic, board.newId());
         return epic;
     }
 
     @Override
     public void deleteEpicById(Integer id) {
-        Epic epic = epics.remove(id);
-        if (epic != null) {
-            epic.getSubtaskIds().stream()
-                    .toList()
-                    .forEach(this::deleteSubtaskById);
-            historyManager.remove(id);
-        }
+        board.removeEpic(id);
     }
 
     @Override
@@ -234,10 +240,7 @@ public class InMemoryTaskManager implements TaskManager {
         Epic existingEpic = epics.get(id);
 
         if (existingEpic != null) {
-            existingEpic.setName(updatedEpic.getName());
-            existingEpic.setDescription(updatedEpic.getDescription());
-
-            recalcEpic(existingEpic);
+            board.replaceEpic(existingEpic, updatedEpic);
         }
     }
 
@@ -250,17 +253,7 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllSubtasks() {
-        prioritizedTasks.removeIf(t -> t.getType() == TaskType.SUBTASK);
-        subtasks.values().stream().forEach(st -> {
-            historyManager.remove(st.getId());
-        });
-        subtasks.clear();
-
-        epics.values().stream().forEach(epic -> {
-            epic.getSubtaskIds().clear();
-            recalcEpic(epic);
-            historyManager.remove(epic.getId());
-        });
+        board.clearSubtasks();
     }
 
     @Override
@@ -285,20 +278,35 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Schedule conflict");
         }
 
-        int id = nextId++;
-        subtask.setId(id);
-
-        subtasks.put(subtask.getId(), subtask);
-        if (subtask.hasSchedule()) {
-            prioritizedTasks.add(subtask);
-        }
-
-        epic.addSubtaskIds(id);
-        recalcEpic(epic);
+        board.insertSubtask(epic, subtask);
+        board.applyAggregates(epic);
 
         return subtask;
     }
 
+    // эпики и расписание проверяются до вставки; агрегаты каждого затронутого эпика пересчитываются один раз
+    @Override
+    public List<Subtask> addSubtasks(Collection<? extends Subtask> batch) {
+        for (Subtask subtask : batch) {
+            if (!epics.containsKey(subtask.getEpicId())) {
+                throw new NoSuchElementException("Epic " + subtask.getEpicId() + " not found");
+            }
+        }
+        if (board.schedule.conflicts(batch)) {
+            throw new IllegalArgumentException("Schedule conflict");
+        }
+        List<Subtask> added = new ArrayList<>(batch.size());
+        Map<Integer, Epic> touched = new LinkedHashMap<>();
+        for (Subtask subtask : batch) {
+            Epic epic = epics.get(subtask.getEpicId());
+            board.insertSubtask(epic, subtask);
+            touched.put(epic.getId(), epic);
+            added.add(subtask);
+        }
+        touched.values().forEach(board::applyAggregates);
+        return added;
+    }
+
     @Override
     public void updateSubtask(Subtask subtask) {
         Subtask oldSubtask = subtasks.get(subtask.getId());
@@ -309,34 +317,25 @@ public class InMemoryTaskManager implements TaskManager {
         if (hasOverlaps(subtask)) {
             throw new IllegalArgumentException("Schedule conflict");
         }
-
-        if (oldSubtask.hasSchedule()) {
-            prioritizedTasks.remove(oldSubtask);
-        }
-        subtasks.put(subtask.getId(), subtask);
-        if (subtask.hasSchedule()) {
-            prioritizedTasks.add(subtask);
-        }
-
-        Epic epic = epics.get(subtask.getEpicId());
-        if (epic != null) {
-            recalcEpic(epic);
-        }
+        board.replaceSubtask(oldSubtask, subtask);
     }
 
     @Override
     public void deleteSubtaskById(Integer id) {
-        Subtask removed = subtasks.remove(id);
-        if (removed != null) {
-            if (removed.hasSchedule()) {
-                prioritizedTasks.remove(removed);
-            }
-            historyManager.remove(id);
-            Epic epic = epics.get(removed.getEpicId());
-            if (epic != null) {
-                epic.getSubtaskIds().remove(id);
-                recalcEpic(epic);
-            }
+        board.removeSubtask(id);
+    }
+
+    // удаления идут через публичные методы, чтобы наследники видели их как обычные
+    @Override
+    public void commit(Transaction transaction) {
+        board.commit(transaction, this::delete);
+    }
+
+    private void delete(TaskType type, int id) {
+        switch (type) {
+            case TASK -> deleteTaskById(id);
+            case EPIC -> deleteEpicById(id);
+            case SUBTASK -> deleteSubtaskById(id);
         }
     }
 
@@ -346,11 +345,28 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             return new ArrayList<>();
         }
+        return board.subtasksOf(epic);
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskType type, TaskStatus status) {
+        return board.statusIndex.find(type, status);
+    }
+
+    // корзины индекса статусов упорядочены по id - страница не требует копии всей таблицы
+    @Override
+    public List<Task> getPage(TaskType type, TaskStatus status, int after, int limit) {
+        return board.statusIndex.page(type, status, after, limit);
+    }
 
-        return epic.getSubtaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    @Override
+    public List<Task> search(String query, int limit) {
+        return board.searchIndex.search(query, limit);
+    }
+
+    @Override
+    public EventSubscription subscribe(long afterSequence) {
+        return board.subscribe(afterSequence);
     }
 
     @Override
@@ -360,6 +376,6 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Set<Task> prioritizedTasks() {
-        return prioritizedTasks;
+        return new LinkedHashSet<>(board.schedule.ordered());
     }
 }
@@ -0,0 +1,53 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.manager.history.HistoryManager;
+import ru.java.java_kanban.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// история под монитором обёрнутого менеджера: её правят и читатели (getXById), и писатели.
+// Монитор захватывается последним, после полос эпиков и scheduleLock
+final class LockedHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+
+    LockedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void add(Task task) {
+        synchronized (delegate) {
+            delegate.add(task);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        synchronized (delegate) {
+            return new ArrayList<>(delegate.getHistory());
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        synchronized (delegate) {
+            delegate.remove(id);
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<Integer> ids) {
+        synchronized (delegate) {
+            delegate.removeAll(ids);
+        }
+    }
+
+    @Override
+    public boolean contains(int id) {
+        synchronized (delegate) {
+            return delegate.contains(id);
+        }
+    }
+}
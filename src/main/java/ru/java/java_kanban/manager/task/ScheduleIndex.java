@@ -0,0 +1,140 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// индекс расписания: интервалы задач и сабтасков по (start, end, id) + id -> слот.
+// Слот неизменяемый, поэтому задачу можно убрать из индекса, даже если её объект уже поменяли снаружи.
+// Пересечения: x.start < y.end && y.start < x.end. Пока интервалы в индексе попарно не пересекаются,
+// их концы в порядке старта не убывают, и для проверки кандидата хватает одного соседа слева - O(log n)
+final class ScheduleIndex {
+    record Slot(LocalDateTime start, LocalDateTime end, int id) {
+    }
+
+    static final Comparator<Slot> ORDER = Comparator
+            .comparing(Slot::start)
+            .thenComparing(Slot::end)
+            .thenComparingInt(Slot::id);
+
+    private final NavigableMap<Slot, Task> slots;
+    private final Map<Integer, Slot> byId;
+    // из файла могли прийти пересекающиеся интервалы - тогда проверка идёт полным проходом
+    private volatile boolean disjoint = true;
+
+    ScheduleIndex() {
+        this(new TreeMap<>(ORDER), new HashMap<>());
+    }
+
+    private ScheduleIndex(NavigableMap<Slot, Task> slots, Map<Integer, Slot> byId) {
+        this.slots = slots;
+        this.byId = byId;
+    }
+
+    // изменения по-прежнему под внешней блокировкой, а ordered() можно читать без неё
+    static ScheduleIndex concurrent() {
+        return new ScheduleIndex(new ConcurrentSkipListMap<>(ORDER), new ConcurrentHashMap<>());
+    }
+
+    boolean conflicts(Task candidate) {
+        return conflicts(candidate, Set.of());
+    }
+
+    // ignored - id, чьи слоты в индексе не считаются (в транзакции они обновляются или удаляются)
+    private boolean conflicts(Task candidate, Set<Integer> ignored) {
+        if (!candidate.hasSchedule()) {
+            return false;
+        }
+        LocalDateTime start = candidate.getStartTime();
+        LocalDateTime end = candidate.getEndTime();
+        // при добавлении id ещё нет, при обновлении свой же слот не считается
+        Integer self = candidate.getId();
+        if (!disjoint) {
+            return slots.keySet().stream()
+                    .anyMatch(slot -> !Objects.equals(self, slot.id()) && !ignored.contains(slot.id())
+                            && overlaps(slot, start, end));
+        }
+        // последний слот, начавшийся раньше конца кандидата, - у него наибольший конец среди таких
+        Slot neighbour = slots.lowerKey(new Slot(end, LocalDateTime.MIN, Integer.MIN_VALUE));
+        while (neighbour != null && (Objects.equals(self, neighbour.id()) || ignored.contains(neighbour.id()))) {
+            neighbour = slots.lowerKey(neighbour);
+        }
+        return neighbour != null && overlaps(neighbour, start, end);
+    }
+
+    // пачка новых задач: между собой - заметающей прямой по (start, end), с индексом - как conflicts().
+    // Достаточно сравнить кандидата с самым дальним концом среди предыдущих: если он пересекается хоть с одним
+    // из них, то и с этим (задачи нулевой длины с тем же стартом стоят в порядке раньше)
+    boolean conflicts(Collection<? extends Task> batch) {
+        return conflicts(batch, Set.of());
+    }
+
+    boolean conflicts(Collection<? extends Task> batch, Set<Integer> ignored) {
+        List<? extends Task> timed = batch.stream()
+                .filter(Task::hasSchedule)
+                .sorted(Comparator.comparing(Task::getStartTime).thenComparing(Task::getEndTime))
+                .toList();
+        Task reach = null;
+        for (Task task : timed) {
+            if (reach != null && reach.getStartTime().isBefore(task.getEndTime())
+                    && task.getStartTime().isBefore(reach.getEndTime())) {
+                return true;
+            }
+            if (reach == null || task.getEndTime().isAfter(reach.getEndTime())) {
+                reach = task;
+            }
+            if (conflicts(task, ignored)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ставит задачу в индекс, убирая её прежний слот; без расписания - только убирает
+    void put(Task task) {
+        remove(task.getId());
+        if (!task.hasSchedule()) {
+            return;
+        }
+        if (disjoint && conflicts(task)) {
+            disjoint = false;
+        }
+        Slot slot = new Slot(task.getStartTime(), task.getEndTime(), task.getId());
+        slots.put(slot, task);
+        byId.put(task.getId(), slot);
+    }
+
+    void remove(int id) {
+        Slot slot = byId.remove(id);
+        if (slot != null) {
+            slots.remove(slot);
+        }
+        if (slots.isEmpty()) {
+            disjoint = true;
+        }
+    }
+
+    // задачи в порядке начала
+    Collection<Task> ordered() {
+        return slots.values();
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    private static boolean overlaps(Slot slot, LocalDateTime start, LocalDateTime end) {
+        return slot.start().isBefore(end) && start.isBefore(slot.end());
+    }
+}
@@ -0,0 +1,196 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskType;
+import ru.java.java_kanban.util.IntHashMap;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// обратный индекс по имени и описанию: термин -> (id -> вес). Слово из имени весит NAME_WEIGHT, из описания 1.
+// Термины - последовательности букв/цифр в нижнем регистре. Каждое слово запроса ищется как префикс,
+// документ должен совпасть со всеми словами; ранг - сумма вес * idf, точное совпадение ценится выше префиксного.
+// У документа хранится его список терминов: задачу могли поменять снаружи, и старые термины из неё уже не достать.
+// Один монитор на весь индекс - для менеджеров, где мутации идут из разных потоков
+final class SearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final double PREFIX_PENALTY = 0.5;
+
+    private record Doc(Task task, String[] terms) {
+    }
+
+    private final NavigableMap<String, IntHashMap<Integer>> postings = new TreeMap<>();
+    private final IntHashMap<Doc> docs = new IntHashMap<>();
+    private long postingCount;
+    private Duration lastBuild = Duration.ZERO;
+
+    synchronized void put(Task task) {
+        index(task, weigh(task));
+    }
+
+    synchronized void remove(int id) {
+        Doc doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms()) {
+            IntHashMap<Integer> ids = postings.get(term);
+            ids.remove(id);
+            postingCount--;
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    // пачка под одним захватом монитора (каскад удаления эпика)
+    synchronized void removeAll(Collection<Integer> ids) {
+        ids.forEach(this::remove);
+    }
+
+    synchronized void clear(TaskType type) {
+        List<Integer> ids = new ArrayList<>();
+        for (Doc doc : docs.values()) {
+            if (doc.task().getType() == type) {
+                ids.add(doc.task().getId());
+            }
+        }
+        ids.forEach(this::remove);
+    }
+
+    // полная сборка при загрузке: разбор на термины идёт параллельно, вставка - одним проходом
+    synchronized SearchStats rebuild(Collection<? extends Task> all) {
+        long started = System.nanoTime();
+        record Weighed(Task task, Map<String, Integer> weights) {
+        }
+        List<Weighed> weighed = all.parallelStream()
+                .map(task -> new Weighed(task, weigh(task)))
+                .toList();
+        postings.clear();
+        docs.clear();
+        postingCount = 0;
+        for (Weighed w : weighed) {
+            index(w.task(), w.weights());
+        }
+        lastBuild = Duration.ofNanos(System.nanoTime() - started);
+        return stats();
+    }
+
+    synchronized List<Task> search(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Double> scores = null;
+        for (String word : words) {
+            Map<Integer, Double> matched = match(word);
+            if (scores == null) {
+                scores = matched;
+            } else {
+                // И по словам: остаются документы, совпавшие со всеми
+                Map<Integer, Double> both = new HashMap<>();
+                for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                    Double score = matched.get(e.getKey());
+                    if (score != null) {
+                        both.put(e.getKey(), e.getValue() + score);
+                    }
+                }
+                scores = both;
+            }
+            if (scores.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(e -> docs.get(e.getKey().intValue()).task())
+                .toList();
+    }
+
+    synchronized SearchStats stats() {
+        long bytes = 0;
+        for (Map.Entry<String, IntHashMap<Integer>> e : postings.entrySet()) {
+            // узел TreeMap + String с массивом + таблица вхождений (int-ключ и ссылка на ячейку)
+            bytes += 40 + 40 + 2L * e.getKey().length();
+            bytes += 48 + 8L * e.getValue().capacity();
+        }
+        for (Doc doc : docs.values()) {
+            bytes += 32 + 4L * doc.terms().length;
+        }
+        bytes += 8L * docs.capacity();
+        return new SearchStats(docs.size(), postings.size(), postingCount, bytes, lastBuild);
+    }
+
+    // по каждому термину с префиксом word - лучший вклад в документ
+    private Map<Integer, Double> match(String word) {
+        Map<Integer, Double> scores = new HashMap<>();
+        NavigableMap<String, IntHashMap<Integer>> range =
+                postings.subMap(word, true, word + Character.MAX_VALUE, false);
+        for (Map.Entry<String, IntHashMap<Integer>> e : range.entrySet()) {
+            IntHashMap<Integer> ids = e.getValue();
+            double idf = Math.log(1.0 + (double) docs.size() / ids.size());
+            double factor = e.getKey().equals(word) ? idf : idf * PREFIX_PENALTY;
+            for (Map.Entry<Integer, Integer> posting : ids.entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void index(Task task, Map<String, Integer> weights) {
+        int id = task.getId();
+        remove(id);
+        for (Map.Entry<String, Integer> e : weights.entrySet()) {
+            IntHashMap<Integer> ids = postings.get(e.getKey());
+            if (ids == null) {
+                ids = new IntHashMap<>(4);
+                postings.put(e.getKey(), ids);
+            }
+            ids.putInt(id, e.getValue());
+            postingCount++;
+        }
+        docs.putInt(id, new Doc(task, weights.keySet().toArray(new String[0])));
+    }
+
+    private static Map<String, Integer> weigh(Task task) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(task.getName())) {
+            weights.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(task.getDescription())) {
+            weights.merge(term, 1, Integer::sum);
+        }
+        return weights;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp)) {
+                token.appendCodePoint(Character.toLowerCase(cp));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.java.java_kanban.manager.task;
+
+import java.time.Duration;
+
+// estimatedBytes - грубая оценка памяти индекса (строки терминов, списки вхождений, документы);
+// lastBuild - время последней полной сборки
+public record SearchStats(int documents, int terms, long postings, long estimatedBytes, Duration lastBuild) {
+}
@@ -0,0 +1,120 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
+import ru.java.java_kanban.util.IntHashMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+// вторичный индекс: корзина на каждую пару (тип, статус), внутри id -> задача по возрастанию id.
+// bucketOf помнит, в какой корзине лежит id, поэтому статус можно поменять прямо в объекте задачи -
+// при следующем put она переедет из старой корзины. Выборка - O(размер результата).
+// Статус не задан (пришёл без него в JSON) - задача числится в NEW, как и при сохранении в файл
+final class StatusIndex {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final List<NavigableMap<Integer, Task>> buckets = new ArrayList<>();
+    private final Map<Integer, NavigableMap<Integer, Task>> bucketOf;
+
+    StatusIndex() {
+        this(TreeMap::new, new IntHashMap<>());
+    }
+
+    private StatusIndex(Supplier<NavigableMap<Integer, Task>> bucket,
+                        Map<Integer, NavigableMap<Integer, Task>> bucketOf) {
+        for (int i = 0; i < TaskType.values().length * STATUSES.length; i++) {
+            buckets.add(bucket.get());
+        }
+        this.bucketOf = bucketOf;
+    }
+
+    // изменения одного id идут под внешней блокировкой, find() можно читать без неё
+    static StatusIndex concurrent() {
+        return new StatusIndex(ConcurrentSkipListMap::new, new ConcurrentHashMap<>());
+    }
+
+    void put(Task task) {
+        int id = task.getId();
+        NavigableMap<Integer, Task> target = bucket(task.getType(), task.getStatus());
+        target.put(id, task);
+        NavigableMap<Integer, Task> old = bucketOf.put(id, target);
+        if (old != null && old != target) {
+            old.remove(id);
+        }
+    }
+
+    void remove(int id) {
+        NavigableMap<Integer, Task> old = bucketOf.remove(id);
+        if (old != null) {
+            old.remove(id);
+        }
+    }
+
+    void clear(TaskType type) {
+        for (TaskStatus status : STATUSES) {
+            NavigableMap<Integer, Task> bucket = bucket(type, status);
+            bucket.keySet().forEach(bucketOf::remove);
+            bucket.clear();
+        }
+    }
+
+    List<Task> find(TaskType type, TaskStatus status) {
+        return new ArrayList<>(bucket(type, status).values());
+    }
+
+    // до limit задач с id > after по возрастанию id; status == null - все статусы (слияние трёх корзин).
+    // Стоимость - O(limit * log n), от размера доски не зависит
+    List<Task> page(TaskType type, TaskStatus status, int after, int limit) {
+        List<Task> page = new ArrayList<>(Math.min(limit, 256));
+        if (status != null) {
+            Iterator<Task> it = bucket(type, status).tailMap(after, false).values().iterator();
+            while (page.size() < limit && it.hasNext()) {
+                page.add(it.next());
+            }
+            return page;
+        }
+        List<Iterator<Map.Entry<Integer, Task>>> sources = new ArrayList<>();
+        List<Map.Entry<Integer, Task>> heads = new ArrayList<>();
+        for (TaskStatus s : STATUSES) {
+            Iterator<Map.Entry<Integer, Task>> it = bucket(type, s).tailMap(after, false).entrySet().iterator();
+            if (it.hasNext()) {
+                sources.add(it);
+                heads.add(it.next());
+            }
+        }
+        while (page.size() < limit && !heads.isEmpty()) {
+            int min = 0;
+            for (int i = 1; i < heads.size(); i++) {
+                if (heads.get(i).getKey() < heads.get(min).getKey()) {
+                    min = i;
+                }
+            }
+            // в concurrent-варианте задача, переезжающая между корзинами, может мелькнуть в обеих
+            Map.Entry<Integer, Task> head = heads.get(min);
+            if (page.isEmpty() || !page.get(page.size() - 1).getId().equals(head.getKey())) {
+                page.add(head.getValue());
+            }
+            if (sources.get(min).hasNext()) {
+                heads.set(min, sources.get(min).next());
+            } else {
+                sources.remove(min);
+                heads.remove(min);
+            }
+        }
+        return page;
+    }
+
+    private NavigableMap<Integer, Task> bucket(TaskType type, TaskStatus status) {
+        TaskStatus effective = status == null ? TaskStatus.NEW : status;
+        return buckets.get(type.ordinal() * STATUSES.length + effective.ordinal());
+    }
+}
@@ -0,0 +1,93 @@
+package ru.java.java_kanban.manager.task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// набор блокировок, выбираемых по ключу (id эпика): разные эпики в большинстве случаев
+// попадают в разные полосы и правятся параллельно. По каждой полосе копится статистика конкуренции
+public final class StripedLock {
+    public record StripeStats(int stripe, long acquisitions, long contended, Duration waited) {
+    }
+
+    private final ReentrantLock[] locks;
+    private final LongAdder[] acquisitions;
+    private final LongAdder[] contended;
+    private final LongAdder[] waitedNanos;
+    private final int mask;
+
+    // число полос округляется вверх до степени двойки
+    public StripedLock(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripes);
+        }
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        locks = new ReentrantLock[size];
+        acquisitions = new LongAdder[size];
+        contended = new LongAdder[size];
+        waitedNanos = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+            acquisitions[i] = new LongAdder();
+            contended[i] = new LongAdder();
+            waitedNanos[i] = new LongAdder();
+        }
+        mask = size - 1;
+    }
+
+    public int stripeOf(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public void lock(int key) {
+        acquire(stripeOf(key));
+    }
+
+    public void unlock(int key) {
+        locks[stripeOf(key)].unlock();
+    }
+
+    // все полосы по возрастанию номера - для операций над всеми эпиками сразу
+    public void lockAll() {
+        for (int i = 0; i < locks.length; i++) {
+            acquire(i);
+        }
+    }
+
+    public void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+
+    public List<StripeStats> stats() {
+        List<StripeStats> stats = new ArrayList<>(locks.length);
+        for (int i = 0; i < locks.length; i++) {
+            stats.add(new StripeStats(i, acquisitions[i].sum(), contended[i].sum(),
+                    Duration.ofNanos(waitedNanos[i].sum())));
+        }
+        return stats;
+    }
+
+    // сначала tryLock: если полоса занята, ожидание считается конкуренцией
+    private void acquire(int stripe) {
+        ReentrantLock lock = locks[stripe];
+        if (!lock.tryLock()) {
+            long started = System.nanoTime();
+            lock.lock();
+            contended[stripe].increment();
+            waitedNanos[stripe].add(System.nanoTime() - started);
+        }
+        acquisitions[stripe].increment();
+    }
+}
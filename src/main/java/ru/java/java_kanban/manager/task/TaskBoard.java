@@ -0,0 +1,345 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.manager.event.EventRing;
+import ru.java.java_kanban.manager.event.EventSubscription;
+import ru.java.java_kanban.manager.event.TaskEvent;
+import ru.java.java_kanban.manager.history.HistoryManager;
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.EpicAggregates;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+// состояние доски и все правки над ним: таблицы, индексы, агрегаты эпиков, события и история.
+// Общее для InMemoryTaskManager и ConcurrentTaskManager; само ничего не блокирует - под чем идёт
+// каждая правка, решает менеджер. Проверки (пересечения, существование эпика) тоже на менеджере
+final class TaskBoard {
+    final Map<Integer, Task> tasks;
+    final Map<Integer, Epic> epics;
+    final Map<Integer, Subtask> subtasks;
+    // задачи и сабтаски с расписанием; он же даёт порядок для prioritizedTasks()
+    final ScheduleIndex schedule;
+    // выборки по типу и статусу, обновляются на каждой мутации
+    final StatusIndex statusIndex;
+    // полнотекстовый поиск; загрузка его не трогает - после неё менеджер перестраивает индекс целиком
+    final SearchIndex searchIndex = new SearchIndex();
+    // события о каждой правке; загрузка (restore/recalcEpic) их не порождает
+    private final EventRing events = new EventRing();
+    private final HistoryManager history;
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private volatile boolean eventsMuted;
+
+    private TaskBoard(TaskStorage.Tables tables, ScheduleIndex schedule, StatusIndex statusIndex,
+                      HistoryManager history, boolean eventsMuted) {
+        this.tasks = tables.tasks();
+        this.epics = tables.epics();
+        this.subtasks = tables.subtasks();
+        this.schedule = schedule;
+        this.statusIndex = statusIndex;
+        this.history = history;
+        this.eventsMuted = eventsMuted;
+    }
+
+    static TaskBoard of(TaskStorage storage, HistoryManager history, boolean eventsMuted) {
+        return new TaskBoard(storage.newTables(), new ScheduleIndex(), new StatusIndex(), history, eventsMuted);
+    }
+
+    // таблицы и индексы читаются без блокировок, история - под монитором обёрнутого менеджера
+    static TaskBoard concurrent(HistoryManager history) {
+        TaskStorage.Tables tables = new TaskStorage.Tables(
+                new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        return new TaskBoard(tables, ScheduleIndex.concurrent(), StatusIndex.concurrent(),
+                new LockedHistoryManager(history), false);
+    }
+
+    HistoryManager history() {
+        return history;
+    }
+
+    int newId() {
+        return nextId.getAndIncrement();
+    }
+
+    void setNextId(int id) {
+        nextId.set(id);
+    }
+
+    // id пришёл из файла: следующий выданный должен быть больше
+    void reserveId(int id) {
+        nextId.accumulateAndGet(id + 1, Math::max);
+    }
+
+    void setEventsMuted(boolean muted) {
+        this.eventsMuted = muted;
+    }
+
+    EventSubscription subscribe(long afterSequence) {
+        return events.subscribe(afterSequence);
+    }
+
+    Task lookup(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> tasks.get(id);
+            case EPIC -> epics.get(id);
+            case SUBTASK -> subtasks.get(id);
+        };
+    }
+
+    List<Subtask> subtasksOf(Epic epic) {
+        List<Subtask> result = new ArrayList<>(epic.getSubtaskIds().size());
+        for (Integer id : epic.getSubtaskIds()) {
+            Subtask subtask = subtasks.get(id);
+            if (subtask != null) {
+                result.add(subtask);
+            }
+        }
+        return result;
+    }
+
+    //All about Task
+    void insertTask(Task task) {
+        task.setId(newId());
+        tasks.put(task.getId(), task);
+        schedule.put(task);
+        statusIndex.put(task);
+        searchIndex.put(task);
+        emit(TaskEvent.Kind.CREATED, null, task);
+    }
+
+    void replaceTask(Task task) {
+        Task old = tasks.put(task.getId(), task);
+        schedule.put(task);
+        statusIndex.put(task);
+        searchIndex.put(task);
+        emit(TaskEvent.Kind.UPDATED, old, task);
+    }
+
+    void removeTask(int id) {
+        Task removed = tasks.remove(id);
+        if (removed != null) {
+            emit(TaskEvent.Kind.DELETED, removed, null);
+            schedule.remove(id);
+            statusIndex.remove(id);
+            searchIndex.remove(id);
+        }
+        history.remove(id);
+    }
+
+    void clearTasks() {
+        tasks.values().forEach(task -> emit(TaskEvent.Kind.DELETED, task, null));
+        tasks.keySet().forEach(schedule::remove);
+        history.removeAll(tasks.keySet());
+        tasks.clear();
+        statusIndex.clear(TaskType.TASK);
+        searchIndex.clear(TaskType.TASK);
+    }
+
+    //All about Epic
+    // id выдаёт вызывающий: конкурентному менеджеру он нужен до вставки, чтобы взять полосу эпика
+    void insertEpic(Epic epic, int id) {
+        epic.setId(id);
+        epics.put(id, epic);
+        statusIndex.put(epic);
+        searchIndex.put(epic);
+        emit(TaskEvent.Kind.CREATED, null, epic);
+    }
+
+    // у эпика меняются только имя и описание, статус и время считаются из сабтасков
+    void replaceEpic(Epic existingEpic, Epic updatedEpic) {
+        Task before = existingEpic.copy();
+        existingEpic.setName(updatedEpic.getName());
+        existingEpic.setDescription(updatedEpic.getDescription());
+        applyAggregates(existingEpic);
+        searchIndex.put(existingEpic);
+        publish(TaskEvent.Kind.UPDATED, before, existingEpic.copy());
+    }
+
+    void removeEpic(int id) {
+        Epic epic = epics.remove(id);
+        if (epic != null) {
+            dropSubtasks(epic);
+            emit(TaskEvent.Kind.DELETED, epic, null);
+            history.remove(id);
+            statusIndex.remove(id);
+            searchIndex.remove(id);
+        }
+    }
+
+    // без эпиков не остаётся и сабтасков: агрегаты и списки удаляемых эпиков не пересчитываются
+    void clearEpics() {
+        dropAllSubtasks();
+        epics.values().forEach(epic -> emit(TaskEvent.Kind.DELETED, epic, null));
+        history.removeAll(epics.keySet());
+        epics.clear();
+        statusIndex.clear(TaskType.EPIC);
+        searchIndex.clear(TaskType.EPIC);
+    }
+
+    //All about Subtask
+    // агрегаты эпика только пополняются, применяет их вызывающий
+    void insertSubtask(Epic epic, Subtask subtask) {
+        int id = newId();
+        subtask.setId(id);
+
+        subtasks.put(id, subtask);
+        schedule.put(subtask);
+        statusIndex.put(subtask);
+        searchIndex.put(subtask);
+        emit(TaskEvent.Kind.CREATED, null, subtask);
+
+        // id новый, проверка на дубль в списке (линейная) не нужна
+        epic.getSubtaskIds().add(id);
+        epic.aggregates().put(subtask);
+    }
+
+    // вклад обновляется у эпика, в списке которого сабтаск числится (epicId старой версии)
+    void replaceSubtask(Subtask oldSubtask, Subtask subtask) {
+        subtasks.put(subtask.getId(), subtask);
+        schedule.put(subtask);
+        statusIndex.put(subtask);
+        searchIndex.put(subtask);
+        emit(TaskEvent.Kind.UPDATED, oldSubtask, subtask);
+
+        Epic epic = epics.get(oldSubtask.getEpicId());
+        if (epic != null) {
+            epic.aggregates().put(subtask);
+            applyAggregates(epic);
+        }
+    }
+
+    void removeSubtask(int id) {
+        Subtask removed = subtasks.remove(id);
+        if (removed != null) {
+            emit(TaskEvent.Kind.DELETED, removed, null);
+            schedule.remove(id);
+            statusIndex.remove(id);
+            searchIndex.remove(id);
+            history.remove(id);
+            Epic epic = epics.get(removed.getEpicId());
+            if (epic != null) {
+                epic.getSubtaskIds().remove(Integer.valueOf(id));
+                epic.aggregates().remove(id);
+                applyAggregates(epic);
+            }
+        }
+    }
+
+    void clearSubtasks() {
+        dropAllSubtasks();
+        for (Epic epic : epics.values()) {
+            epic.getSubtaskIds().clear();
+            epic.aggregates().clear();
+            applyAggregates(epic);
+            history.remove(epic.getId());
+        }
+    }
+
+    private void dropAllSubtasks() {
+        subtasks.values().forEach(subtask -> emit(TaskEvent.Kind.DELETED, subtask, null));
+        subtasks.keySet().forEach(schedule::remove);
+        history.removeAll(subtasks.keySet());
+        subtasks.clear();
+        statusIndex.clear(TaskType.SUBTASK);
+        searchIndex.clear(TaskType.SUBTASK);
+    }
+
+    // каскад удаления эпика: сабтаски снимаются с индексов и истории одним проходом,
+    // без правки списка и агрегатов эпика, который всё равно удаляется
+    private void dropSubtasks(Epic epic) {
+        List<Integer> ids = epic.getSubtaskIds();
+        for (Integer id : ids) {
+            emit(TaskEvent.Kind.DELETED, subtasks.remove(id), null);
+            schedule.remove(id);
+            statusIndex.remove(id);
+        }
+        searchIndex.removeAll(ids);
+        history.removeAll(ids);
+    }
+
+    // сначала проверка всей транзакции, потом применение без проверок: промежуточные состояния
+    // (например, обмен двух задач местами) могут пересекаться, итоговое - нет.
+    // Удаления идут через delete - менеджер проводит их своими публичными методами, чтобы наследники
+    // видели их как обычные
+    void commit(Transaction transaction, BiConsumer<TaskType, Integer> delete) {
+        Set<Integer> released = transaction.validate(this::lookup, schedule);
+        released.forEach(schedule::remove);
+        for (Transaction.Op op : transaction.ops()) {
+            switch (op.kind()) {
+                case ADD -> {
+                    switch (op.type()) {
+                        case TASK -> insertTask(op.task());
+                        case EPIC -> insertEpic((Epic) op.task(), newId());
+                        case SUBTASK -> {
+                            Subtask subtask = (Subtask) op.task();
+                            Epic epic = epics.get(subtask.getEpicId());
+                            insertSubtask(epic, subtask);
+                            applyAggregates(epic);
+                        }
+                    }
+                }
+                case UPDATE -> {
+                    switch (op.type()) {
+                        case TASK -> replaceTask(op.task());
+                        case EPIC -> replaceEpic(epics.get(op.id()), (Epic) op.task());
+                        case SUBTASK -> replaceSubtask(subtasks.get(op.id()), (Subtask) op.task());
+                    }
+                }
+                case DELETE -> delete.accept(op.type(), op.id());
+            }
+        }
+    }
+
+    // полный пересчёт агрегатов эпика (загрузка); правки сабтасков обновляют их инкрементально
+    void recalcEpic(Epic epic) {
+        EpicAggregates aggregates = epic.aggregates();
+        aggregates.clear();
+        subtasksOf(epic).forEach(aggregates::put);
+        aggregates.applyTo(epic);
+        statusIndex.put(epic);
+    }
+
+    // статус эпика мог смениться - переложить его в индексе; сменились статус или время - событие
+    void applyAggregates(Epic epic) {
+        TaskStatus status = epic.getStatus();
+        LocalDateTime start = epic.getStartTime();
+        LocalDateTime end = epic.getEndTime();
+        Duration duration = epic.getDuration();
+        epic.aggregates().applyTo(epic);
+        statusIndex.put(epic);
+        if (status != epic.getStatus() || !Objects.equals(start, epic.getStartTime())
+                || !Objects.equals(end, epic.getEndTime()) || !Objects.equals(duration, epic.getDuration())) {
+            Epic before = (Epic) epic.copy();
+            before.setStatus(status);
+            before.setStartTime(start);
+            before.setEndTime(end);
+            before.setDuration(duration);
+            publish(TaskEvent.Kind.UPDATED, before, epic.copy());
+        }
+    }
+
+    // в событие идут копии: задачи менеджера и переданные в него объекты дальше меняются
+    private void emit(TaskEvent.Kind kind, Task before, Task after) {
+        if (before == null && after == null) {
+            return;
+        }
+        publish(kind, before == null ? null : before.copy(), after == null ? null : after.copy());
+    }
+
+    private void publish(TaskEvent.Kind kind, Task before, Task after) {
+        if (!eventsMuted) {
+            events.publish(kind, before, after);
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package ru.java.java_kanban.manager.task;
 
 
+import ru.java.java_kanban.manager.event.EventSubscription;
 import ru.java.java_kanban.model.Epic;
 import ru.java.java_kanban.model.Subtask;
 import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -18,6 +22,9 @@ public interface TaskManager {
 
     Task addTask(Task task);
 
+    // добавление пачкой: одна проверка расписания на всю пачку, при конфликте не добавляется ничего
+    List<Task> addTasks(Collection<? extends Task> batch);
+
     void deleteTaskById(Integer id);
 
     void updateTask(Task task);
@@ -44,12 +51,39 @@ public interface TaskManager {
 
     Subtask addSubtask(Subtask subtask);
 
+    List<Subtask> addSubtasks(Collection<? extends Subtask> batch);
+
     void updateSubtask(Subtask updatedSubtask);
 
     void deleteSubtaskById(Integer id);
 
     List<Subtask> getSubtasksOfEpic(Integer epicId);
 
+    // задачи типа type в статусе status по возрастанию id, из индекса - за O(размер результата)
+    List<Task> findByStatus(TaskType type, TaskStatus status);
+
+    // страница по курсору: до limit задач типа type с id > after по возрастанию id; status == null - любой
+    List<Task> getPage(TaskType type, TaskStatus status, int after, int limit);
+
+    // полнотекстовый поиск по имени и описанию: слова запроса - префиксы, лучшие совпадения первыми
+    List<Task> search(String query, int limit);
+
+    // транзакция над этим менеджером: операции копятся в ней и применяются разом в commit()
+    default Transaction begin() {
+        return new Transaction(this);
+    }
+
+    // проверяет все операции против итогового состояния и применяет их атомарно; при ошибке не меняется ничего
+    void commit(Transaction transaction);
+
+    // поток изменений: события с номером больше afterSequence, потребитель читает их в своём темпе
+    EventSubscription subscribe(long afterSequence);
+
+    // только изменения после подписки
+    default EventSubscription subscribe() {
+        return subscribe(Long.MAX_VALUE);
+    }
+
     List<Task> getHistory();
 
     Set<Task> prioritizedTasks();
@@ -0,0 +1,200 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
+import ru.java.java_kanban.util.PersistentTreap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// неизменяемая версия доски: копии задач в персистентных деревьях. Новая версия делит с предыдущей
+// всё, кроме путей к изменённым задачам. Все чтения из одного снимка согласованы между собой.
+// Объекты задач общие для всех читателей снимка - менять их можно только через update* менеджера
+public final class TaskSnapshot {
+    // (тип, статус, id): выборка по статусу и страница - диапазон одного дерева, как корзина в StatusIndex
+    private record StatusKey(TaskType type, TaskStatus status, int id) {
+        static StatusKey of(Task task) {
+            // статус не задан - задача числится в NEW, как и в StatusIndex
+            TaskStatus status = task.getStatus() == null ? TaskStatus.NEW : task.getStatus();
+            return new StatusKey(task.getType(), status, task.getId());
+        }
+    }
+
+    private static final Comparator<StatusKey> STATUS_ORDER = Comparator.comparing(StatusKey::type)
+            .thenComparing(StatusKey::status)
+            .thenComparingInt(StatusKey::id);
+
+    static final TaskSnapshot EMPTY = new TaskSnapshot(0, PersistentTreap.empty(), PersistentTreap.empty(),
+            PersistentTreap.empty(), PersistentTreap.empty(ScheduleIndex.ORDER), PersistentTreap.empty(STATUS_ORDER));
+
+    private final long version;
+    private final PersistentTreap<Integer, Task> tasks;
+    private final PersistentTreap<Integer, Epic> epics;
+    private final PersistentTreap<Integer, Subtask> subtasks;
+    private final PersistentTreap<ScheduleIndex.Slot, Task> schedule;
+    private final PersistentTreap<StatusKey, Task> byStatus;
+
+    private TaskSnapshot(long version,
+                         PersistentTreap<Integer, Task> tasks,
+                         PersistentTreap<Integer, Epic> epics,
+                         PersistentTreap<Integer, Subtask> subtasks,
+                         PersistentTreap<ScheduleIndex.Slot, Task> schedule,
+                         PersistentTreap<StatusKey, Task> byStatus) {
+        this.version = version;
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.schedule = schedule;
+        this.byStatus = byStatus;
+    }
+
+    // номер растёт на единицу с каждой опубликованной правкой
+    public long version() {
+        return version;
+    }
+
+    public Task task(int id) {
+        return tasks.get(id);
+    }
+
+    public Epic epic(int id) {
+        return epics.get(id);
+    }
+
+    public Subtask subtask(int id) {
+        return subtasks.get(id);
+    }
+
+    // списки - по возрастанию id
+    public List<Task> tasks() {
+        return tasks.values();
+    }
+
+    public List<Epic> epics() {
+        return epics.values();
+    }
+
+    public List<Subtask> subtasks() {
+        return subtasks.values();
+    }
+
+    public List<Subtask> subtasksOf(int epicId) {
+        Epic epic = epics.get(epicId);
+        List<Subtask> result = new ArrayList<>();
+        if (epic == null) {
+            return result;
+        }
+        for (Integer id : epic.getSubtaskIds()) {
+            Subtask subtask = subtasks.get(id);
+            if (subtask != null) {
+                result.add(subtask);
+            }
+        }
+        return result;
+    }
+
+    // задачи и сабтаски с расписанием, по времени начала
+    public List<Task> prioritized() {
+        return schedule.values();
+    }
+
+    // задачи типа с данным статусом по возрастанию id
+    public List<Task> byStatus(TaskType type, TaskStatus status) {
+        return page(type, status, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    // до limit задач с id > after по возрастанию id; status == null - все статусы (слияние трёх диапазонов).
+    // Стоимость - O(log n + limit), как у StatusIndex.page
+    public List<Task> page(TaskType type, TaskStatus status, int after, int limit) {
+        if (status != null) {
+            return range(type, status, after, limit);
+        }
+        List<Task> page = new ArrayList<>();
+        for (TaskStatus s : TaskStatus.values()) {
+            page.addAll(range(type, s, after, limit));
+        }
+        page.sort(Comparator.comparing(Task::getId));
+        return page.size() > limit ? new ArrayList<>(page.subList(0, limit)) : page;
+    }
+
+    private List<Task> range(TaskType type, TaskStatus status, int after, int limit) {
+        return byStatus.between(new StatusKey(type, status, after),
+                new StatusKey(type, status, Integer.MAX_VALUE), limit);
+    }
+
+    Task lookup(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> tasks.get(id);
+            case EPIC -> epics.get(id);
+            case SUBTASK -> subtasks.get(id);
+        };
+    }
+
+    TaskSnapshot withVersion(long newVersion) {
+        return new TaskSnapshot(newVersion, tasks, epics, subtasks, schedule, byStatus);
+    }
+
+    // live - текущее состояние задачи в менеджере или null, если её удалили; в снимок идёт копия
+    TaskSnapshot withTask(int id, Task live) {
+        Task old = tasks.get(id);
+        Task copy = live == null ? null : live.copy();
+        return new TaskSnapshot(version,
+                copy == null ? tasks.remove(id) : tasks.put(id, copy),
+                epics, subtasks, reschedule(old, copy), restatus(old, copy));
+    }
+
+    TaskSnapshot withEpic(int id, Epic live) {
+        return putEpic(id, live == null ? null : (Epic) live.copy());
+    }
+
+    // состав сабтасков эпика не менялся (правка сабтаска): список берётся из прошлой версии без копирования,
+    // иначе каждая правка сабтаска стоила бы O(числа сабтасков эпика)
+    TaskSnapshot withEpicState(int id, Epic live) {
+        Epic old = epics.get(id);
+        if (old == null || live == null) {
+            return withEpic(id, live);
+        }
+        return putEpic(id, live.copyWithSubtaskIds(old.getSubtaskIds()));
+    }
+
+    private TaskSnapshot putEpic(int id, Epic copy) {
+        Epic old = epics.get(id);
+        return new TaskSnapshot(version, tasks,
+                copy == null ? epics.remove(id) : epics.put(id, copy),
+                subtasks, schedule, restatus(old, copy));
+    }
+
+    TaskSnapshot withSubtask(int id, Subtask live) {
+        Subtask old = subtasks.get(id);
+        Subtask copy = live == null ? null : (Subtask) live.copy();
+        return new TaskSnapshot(version, tasks, epics,
+                copy == null ? subtasks.remove(id) : subtasks.put(id, copy),
+                reschedule(old, copy), restatus(old, copy));
+    }
+
+    private PersistentTreap<StatusKey, Task> restatus(Task old, Task copy) {
+        PersistentTreap<StatusKey, Task> result = byStatus;
+        if (old != null) {
+            result = result.remove(StatusKey.of(old));
+        }
+        if (copy != null) {
+            result = result.put(StatusKey.of(copy), copy);
+        }
+        return result;
+    }
+
+    private PersistentTreap<ScheduleIndex.Slot, Task> reschedule(Task old, Task copy) {
+        PersistentTreap<ScheduleIndex.Slot, Task> result = schedule;
+        if (old != null && old.hasSchedule()) {
+            result = result.remove(new ScheduleIndex.Slot(old.getStartTime(), old.getEndTime(), old.getId()));
+        }
+        if (copy != null && copy.hasSchedule()) {
+            result = result.put(new ScheduleIndex.Slot(copy.getStartTime(), copy.getEndTime(), copy.getId()), copy);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskType;
+import ru.java.java_kanban.util.DenseArrayMap;
+import ru.java.java_kanban.util.IntHashMap;
+
+import java.util.Map;
+
+// чем InMemoryTaskManager хранит задачи по id
+public enum TaskStorage {
+    // хеш-таблица с открытой адресацией: годится для любых id
+    HASH,
+    // один чанкованный массив на все типы, индексируемый прямо по id: для плотных id подряд,
+    // обход по возрастанию id
+    DENSE;
+
+    record Tables(Map<Integer, Task> tasks, Map<Integer, Epic> epics, Map<Integer, Subtask> subtasks) {
+    }
+
+    Tables newTables() {
+        return switch (this) {
+            case HASH -> new Tables(new IntHashMap<>(), new IntHashMap<>(), new IntHashMap<>());
+            case DENSE -> {
+                // id общие для всех типов: три отдельных массива держали бы в каждом чанке дыры под чужие типы
+                DenseArrayMap<Task> table = new DenseArrayMap<>();
+                yield new Tables(new TypedTaskView<>(table, TaskType.TASK),
+                        new TypedTaskView<>(table, TaskType.EPIC),
+                        new TypedTaskView<>(table, TaskType.SUBTASK));
+            }
+        };
+    }
+}
@@ -0,0 +1,175 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+// несколько правок одним целым: операции копятся здесь, менеджер в commit() проверяет их против
+// состояния после транзакции и применяет все разом, либо не применяет ни одной.
+// id новым задачам назначаются при применении, поэтому сабтаск можно добавить только в уже существующий эпик
+public final class Transaction {
+    enum Kind {
+        ADD, UPDATE, DELETE
+    }
+
+    // у DELETE задачи нет, только id
+    record Op(Kind kind, TaskType type, Task task, int id) {
+    }
+
+    // текущая задача по типу и id, null - нет такой
+    @FunctionalInterface
+    interface Lookup {
+        Task find(TaskType type, int id);
+    }
+
+    private final TaskManager manager;
+    private final List<Op> ops = new ArrayList<>();
+    private boolean committed;
+
+    Transaction(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    public Transaction addTask(Task task) {
+        return add(Kind.ADD, TaskType.TASK, task);
+    }
+
+    public Transaction updateTask(Task task) {
+        return add(Kind.UPDATE, TaskType.TASK, task);
+    }
+
+    public Transaction deleteTask(int id) {
+        return delete(TaskType.TASK, id);
+    }
+
+    public Transaction addEpic(Epic epic) {
+        return add(Kind.ADD, TaskType.EPIC, epic);
+    }
+
+    public Transaction updateEpic(Epic epic) {
+        return add(Kind.UPDATE, TaskType.EPIC, epic);
+    }
+
+    public Transaction deleteEpic(int id) {
+        return delete(TaskType.EPIC, id);
+    }
+
+    public Transaction addSubtask(Subtask subtask) {
+        return add(Kind.ADD, TaskType.SUBTASK, subtask);
+    }
+
+    public Transaction updateSubtask(Subtask subtask) {
+        return add(Kind.UPDATE, TaskType.SUBTASK, subtask);
+    }
+
+    public Transaction deleteSubtask(int id) {
+        return delete(TaskType.SUBTASK, id);
+    }
+
+    public int size() {
+        return ops.size();
+    }
+
+    // при ошибке проверки менеджер не меняется, транзакцию можно поправить и зафиксировать снова
+    public void commit() {
+        if (committed) {
+            throw new IllegalStateException("Transaction is already committed");
+        }
+        manager.commit(this);
+        committed = true;
+    }
+
+    List<Op> ops() {
+        return Collections.unmodifiableList(ops);
+    }
+
+    // прогоняет операции по порядку, ничего не меняя: цели обновлений и удалений должны существовать
+    // на момент своей операции, пересечения считаются по итоговым версиям задач.
+    // Эпики в расписание не входят: их время выводится из сабтасков, как и в обычном updateEpic.
+    // Возвращает id, чьи текущие слоты в расписании уходят, - вызывающий снимает их до применения
+    Set<Integer> validate(Lookup lookup, ScheduleIndex schedule) {
+        Set<Integer> removed = new HashSet<>();
+        Set<Integer> released = new HashSet<>();
+        List<Task> added = new ArrayList<>();
+        Map<Integer, Task> updated = new LinkedHashMap<>();
+        for (Op op : ops) {
+            switch (op.kind()) {
+                case ADD -> {
+                    if (op.task() instanceof Subtask subtask) {
+                        requireLive(lookup, removed, TaskType.EPIC, subtask.getEpicId());
+                    }
+                    if (op.type() != TaskType.EPIC) {
+                        added.add(op.task());
+                    }
+                }
+                case UPDATE -> {
+                    requireLive(lookup, removed, op.type(), op.id());
+                    if (op.type() != TaskType.EPIC) {
+                        updated.put(op.id(), op.task());
+                        released.add(op.id());
+                    }
+                }
+                case DELETE -> {
+                    Task target = requireLive(lookup, removed, op.type(), op.id());
+                    List<Integer> gone = new ArrayList<>();
+                    gone.add(op.id());
+                    if (target instanceof Epic epic) {
+                        gone.addAll(epic.getSubtaskIds());
+                        added.removeIf(task -> task instanceof Subtask subtask && Objects.equals(subtask.getEpicId(), op.id()));
+                    }
+                    for (Integer id : gone) {
+                        removed.add(id);
+                        released.add(id);
+                        updated.remove(id);
+                    }
+                }
+            }
+        }
+        List<Task> result = new ArrayList<>(added);
+        result.addAll(updated.values());
+        if (schedule.conflicts(result, released)) {
+            throw new IllegalArgumentException("Schedule conflict");
+        }
+        return released;
+    }
+
+    // id без значения (сабтаск без эпика) считается ненайденным, как и неизвестный
+    private static Task requireLive(Lookup lookup, Set<Integer> removed, TaskType type, Integer id) {
+        Task task = id == null || removed.contains(id) ? null : lookup.find(type, id);
+        if (task == null) {
+            throw new NoSuchElementException(type + " " + id + " not found");
+        }
+        return task;
+    }
+
+    private Transaction add(Kind kind, TaskType type, Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+        int id = 0;
+        if (kind == Kind.UPDATE) {
+            if (task.getId() == null) {
+                throw new IllegalArgumentException("Task id is required for update");
+            }
+            id = task.getId();
+        }
+        ops.add(new Op(kind, type, task, id));
+        return this;
+    }
+
+    private Transaction delete(TaskType type, int id) {
+        ops.add(new Op(Kind.DELETE, type, null, id));
+        return this;
+    }
+}
@@ -0,0 +1,196 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskType;
+import ru.java.java_kanban.util.DenseArrayMap;
+import ru.java.java_kanban.util.IntList;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// таблица одного типа задач поверх общей DenseArrayMap: id у менеджера общие для всех типов, поэтому
+// задачи, эпики и сабтаски лежат в одном массиве без дыр друг под друга, а вид отбирает свои по типу.
+// Поиск - одно чтение массива и сравнение типа, обход идёт по всем id и пропускает чужие
+final class TypedTaskView<V extends Task> extends AbstractMap<Integer, V> {
+    private final DenseArrayMap<Task> table;
+    private final TaskType type;
+    private int size;
+
+    TypedTaskView(DenseArrayMap<Task> table, TaskType type) {
+        this.table = table;
+        this.type = type;
+    }
+
+    DenseArrayMap<Task> table() {
+        return table;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        Task task = table.get(key);
+        return task != null && task.getType() == type ? (V) task : null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer k ? get(k.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(Integer key, V value) {
+        if (value.getType() != type) {
+            throw new IllegalArgumentException(value.getType() + " " + key + " does not belong to " + type + " table");
+        }
+        Task old = table.get(key.intValue());
+        if (old != null && old.getType() != type) {
+            throw new IllegalArgumentException("Id " + key + " is already taken by " + old.getType());
+        }
+        table.putInt(key, value);
+        if (old == null) {
+            size++;
+        }
+        return (V) old;
+    }
+
+    @Override
+    public V remove(Object key) {
+        V old = get(key);
+        if (old != null) {
+            table.remove(((Integer) key).intValue());
+            size--;
+        }
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // чужие типы остаются; если таблица целиком своя - очищается разом
+    @Override
+    public void clear() {
+        if (size == table.size()) {
+            table.clear();
+        } else {
+            IntList ids = new IntList(size);
+            for (Integer id : keySet()) {
+                ids.addInt(id);
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                table.remove(ids.getInt(i));
+            }
+        }
+        size = 0;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new OwnIterator<>() {
+                    @Override
+                    V at(Entry<Integer, V> entry) {
+                        return entry.getValue();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Integer> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return new OwnIterator<>() {
+                    @Override
+                    Integer at(Entry<Integer, V> entry) {
+                        return entry.getKey();
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new OwnIterator<>() {
+                    @Override
+                    Entry<Integer, V> at(Entry<Integer, V> entry) {
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // обход общей таблицы по возрастанию id с пропуском задач других типов
+    private abstract class OwnIterator<T> implements Iterator<T> {
+        private final Iterator<Entry<Integer, Task>> all = table.entrySet().iterator();
+        private Entry<Integer, V> next = advance();
+
+        abstract T at(Entry<Integer, V> entry);
+
+        @SuppressWarnings("unchecked")
+        private Entry<Integer, V> advance() {
+            while (all.hasNext()) {
+                Entry<Integer, Task> entry = all.next();
+                if (entry.getValue().getType() == type) {
+                    return (Entry<Integer, V>) (Entry<Integer, ?>) entry;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            T item = at(next);
+            next = advance();
+            return item;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.manager.history.HistoryManager;
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// MVCC поверх InMemoryTaskManager: писатели по очереди (монитор менеджера) правят живые структуры
+// и публикуют новую неизменяемую версию TaskSnapshot; читатели берут текущую версию одним volatile-чтением
+// и не ждут писателей - в том числе выборки по статусу и страницы, их отвечает индекс внутри снимка.
+// История правится и читателями, поэтому каждый её вызов под её монитором (LockedHistoryManager).
+// Порядок захвата: монитор менеджера -> монитор истории
+public class VersionedTaskManager extends InMemoryTaskManager {
+    private volatile TaskSnapshot current = TaskSnapshot.EMPTY;
+    // версия, собираемая текущей правкой; читатели её не видят до конца write()
+    private TaskSnapshot pending;
+    // базовые методы зовут переопределённые (deleteAllEpics -> deleteSubtaskById) - публикует внешний write()
+    private int depth;
+
+    public VersionedTaskManager(HistoryManager historyManager) {
+        super(historyManager == null ? null : new LockedHistoryManager(historyManager));
+    }
+
+    // согласованный снимок для нескольких чтений подряд
+    public TaskSnapshot snapshot() {
+        return current;
+    }
+
+    //All about Task
+    @Override
+    public List<Task> getAllTasks() {
+        return current.tasks();
+    }
+
+    @Override
+    public Task getTaskById(Integer id) {
+        return remember(id == null ? null : current.task(id));
+    }
+
+    @Override
+    public Task addTask(Task task) {
+        return write(() -> {
+            Task added = super.addTask(task);
+            publishTask(added.getId());
+            return added;
+        });
+    }
+
+    @Override
+    public List<Task> addTasks(Collection<? extends Task> batch) {
+        return write(() -> {
+            List<Task> added = super.addTasks(batch);
+            added.forEach(task -> publishTask(task.getId()));
+            return added;
+        });
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> {
+            super.updateTask(task);
+            publishTask(task.getId());
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteTaskById(Integer id) {
+        write(() -> {
+            super.deleteTaskById(id);
+            publishTask(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(() -> {
+            super.deleteAllTasks();
+            republish();
+            return null;
+        });
+    }
+
+    //All about Epic
+    @Override
+    public List<Epic> getAllEpics() {
+        return current.epics();
+    }
+
+    @Override
+    public Epic getEpicById(Integer id) {
+        return remember(id == null ? null : current.epic(id));
+    }
+
+    @Override
+    public Epic addEpic(Epic epic) {
+        return write(() -> {
+            Epic added = super.addEpic(epic);
+            publishEpic(added.getId());
+            return added;
+        });
+    }
+
+    @Override
+    public void updateEpic(Epic updatedEpic) {
+        write(() -> {
+            super.updateEpic(updatedEpic);
+            publishEpic(updatedEpic.getId());
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteEpicById(Integer id) {
+        write(() -> {
+            Epic epic = epics.get(id);
+            List<Integer> subtaskIds = epic == null ? List.of() : new ArrayList<>(epic.getSubtaskIds());
+            super.deleteEpicById(id);
+            publishEpic(id);
+            subtaskIds.forEach(this::publishSubtask);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(() -> {
+            super.deleteAllEpics();
+            republish();
+            return null;
+        });
+    }
+
+    //All about Subtask
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return current.subtasks();
+    }
+
+    @Override
+    public Subtask getSubtaskById(Integer id) {
+        return remember(id == null ? null : current.subtask(id));
+    }
+
+    @Override
+    public Subtask addSubtask(Subtask subtask) {
+        return write(() -> {
+            Subtask added = super.addSubtask(subtask);
+            publishSubtask(added.getId());
+            publishEpic(added.getEpicId());
+            return added;
+        });
+    }
+
+    @Override
+    public List<Subtask> addSubtasks(Collection<? extends Subtask> batch) {
+        return write(() -> {
+            List<Subtask> added = super.addSubtasks(batch);
+            added.forEach(subtask -> publishSubtask(subtask.getId()));
+            added.stream().map(Subtask::getEpicId).distinct().forEach(this::publishEpic);
+            return added;
+        });
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        write(() -> {
+            Subtask old = subtasks.get(subtask.getId());
+            super.updateSubtask(subtask);
+            publishSubtask(subtask.getId());
+            if (old != null) {
+                // состав сабтасков эпика не менялся - меняются только статус и время
+                pending = pending.withEpicState(old.getEpicId(), epics.get(old.getEpicId()));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteSubtaskById(Integer id) {
+        write(() -> {
+            Subtask old = subtasks.get(id);
+            super.deleteSubtaskById(id);
+            if (old != null) {
+                publishSubtask(id);
+                publishEpic(old.getEpicId());
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(() -> {
+            super.deleteAllSubtasks();
+            republish();
+            return null;
+        });
+    }
+
+    // вся транзакция - одна версия: читатели видят либо состояние до неё, либо после
+    @Override
+    public void commit(Transaction transaction) {
+        write(() -> {
+            // эпик сабтаска берётся до применения: обновление считается у эпика, где сабтаск числится
+            Set<Integer> touchedEpics = new LinkedHashSet<>();
+            for (Transaction.Op op : transaction.ops()) {
+                if (op.type() == TaskType.SUBTASK && op.kind() != Transaction.Kind.DELETE) {
+                    Subtask old = op.kind() == Transaction.Kind.UPDATE ? subtasks.get(op.id()) : (Subtask) op.task();
+                    if (old != null) {
+                        touchedEpics.add(old.getEpicId());
+                    }
+                }
+            }
+            super.commit(transaction);
+            for (Transaction.Op op : transaction.ops()) {
+                if (op.task() == null) {
+                    continue;
+                }
+                switch (op.type()) {
+                    case TASK -> publishTask(op.task().getId());
+                    case EPIC -> publishEpic(op.task().getId());
+                    case SUBTASK -> publishSubtask(op.task().getId());
+                }
+            }
+            touchedEpics.forEach(this::publishEpic);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Subtask> getSubtasksOfEpic(Integer epicId) {
+        return epicId == null ? new ArrayList<>() : current.subtasksOf(epicId);
+    }
+
+    @Override
+    public Set<Task> prioritizedTasks() {
+        return new LinkedHashSet<>(current.prioritized());
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskType type, TaskStatus status) {
+        return current.byStatus(type, status);
+    }
+
+    @Override
+    public List<Task> getPage(TaskType type, TaskStatus status, int after, int limit) {
+        return current.page(type, status, after, limit);
+    }
+
+    // поисковый индекс под собственным монитором, монитор писателей не нужен; найденные живые задачи
+    // заменяются их версиями из снимка (ещё не опубликованные отбрасываются)
+    @Override
+    public List<Task> search(String query, int limit) {
+        TaskSnapshot snapshot = current;
+        List<Task> found = new ArrayList<>();
+        for (Task task : super.search(query, limit)) {
+            Task published = snapshot.lookup(task.getType(), task.getId());
+            if (published != null) {
+                found.add(published);
+            }
+        }
+        return found;
+    }
+
+    // правка живых структур и публикация версии одной записью в current, так что сабтаск и его эпик
+    // читатель видит только вместе
+    private synchronized <R> R write(Supplier<R> change) {
+        if (depth++ == 0) {
+            pending = current;
+        }
+        try {
+            return change.get();
+        } finally {
+            if (--depth == 0) {
+                if (pending != current) {
+                    current = pending.withVersion(current.version() + 1);
+                }
+                pending = null;
+            }
+        }
+    }
+
+    private void publishTask(int id) {
+        pending = pending.withTask(id, tasks.get(id));
+    }
+
+    private void publishEpic(int id) {
+        pending = pending.withEpic(id, epics.get(id));
+    }
+
+    private void publishSubtask(int id) {
+        pending = pending.withSubtask(id, subtasks.get(id));
+    }
+
+    // массовое удаление затрагивает всю доску - версия собирается заново
+    private void republish() {
+        TaskSnapshot next = TaskSnapshot.EMPTY;
+        for (Task task : tasks.values()) {
+            next = next.withTask(task.getId(), task);
+        }
+        for (Epic epic : epics.values()) {
+            next = next.withEpic(epic.getId(), epic);
+        }
+        for (Subtask subtask : subtasks.values()) {
+            next = next.withSubtask(subtask.getId(), subtask);
+        }
+        pending = next;
+    }
+
+    private <T extends Task> T remember(T task) {
+        if (task != null) {
+            historyManager.add(task);
+        }
+        return task;
+    }
+}
@@ -1,12 +1,16 @@
 package ru.java.java_kanban.model;
 
+import ru.java.java_kanban.util.IntList;
+
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 public class Epic extends Task {
-    private List<Integer> subtaskIds = new ArrayList<>();
+    // тип поля - List, чтобы JSON оставался массивом; внутри менеджера это IntList без упаковки
+    private List<Integer> subtaskIds = new IntList();
     private LocalDateTime endTime;
+    // не сериализуется: восстанавливается менеджером из сабтасков
+    private transient EpicAggregates aggregates;
 
     public Epic(String name, String description) {
         super(name, description, TaskStatus.NEW);
@@ -26,12 +30,19 @@ public class Epic extends Task {
         return TaskType.EPIC;
     }
 
+    public EpicAggregates aggregates() {
+        if (aggregates == null) {
+            aggregates = new EpicAggregates();
+        }
+        return aggregates;
+    }
+
     public List<Integer> getSubtaskIds() {
         return subtaskIds;
     }
 
     public void setSubtaskIds(List<Integer> ids) {
-        this.subtaskIds = ids;
+        this.subtaskIds = ids instanceof IntList ? ids : new IntList(ids);
     }
 
     @Override
@@ -56,10 +67,15 @@ public class Epic extends Task {
 
     @Override
     public Task copy() {
+        return copyWithSubtaskIds(new IntList(getSubtaskIds()));
+    }
+
+    // копия полей эпика с переданным списком сабтасков: он не копируется, а становится общим
+    public Epic copyWithSubtaskIds(List<Integer> ids) {
         Epic copy = new Epic(getName(), getDescription());
         copy.setId(this.getId());
         copy.setStatus(getStatus());
-        copy.setSubtaskIds(new ArrayList<>(getSubtaskIds()));
+        copy.setSubtaskIds(ids);
         copy.setStartTime(getStartTime());
         copy.setEndTime(getEndTime());
         copy.setDuration(getDuration());
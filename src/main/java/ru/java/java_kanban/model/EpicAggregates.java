@@ -0,0 +1,103 @@
+package ru.java.java_kanban.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// агрегаты эпика по сабтаскам, поддерживаются инкрементально: вклад каждого сабтаска хранится отдельно,
+// поэтому изменение одного сабтаска стоит O(log k) (мультимножества старта/конца), остальное - O(1)
+public class EpicAggregates {
+    private record Contribution(TaskStatus status, LocalDateTime start, LocalDateTime end, Duration duration) {
+    }
+
+    private static final int NO_STATUS = TaskStatus.values().length;
+
+    private final Map<Integer, Contribution> contributions = new HashMap<>();
+    // последняя ячейка - сабтаски без статуса (пришли без него в JSON)
+    private final int[] statusCounts = new int[NO_STATUS + 1];
+    private long durationMinutes;
+    private int withDuration;
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+
+    // добавляет или заменяет вклад сабтаска
+    public void put(Subtask subtask) {
+        remove(subtask.getId());
+        Contribution c = new Contribution(subtask.getStatus(), subtask.getStartTime(),
+                subtask.getEndTime(), subtask.getDuration());
+        contributions.put(subtask.getId(), c);
+        statusCounts[slot(c.status())]++;
+        if (c.duration() != null) {
+            durationMinutes += c.duration().toMinutes();
+            withDuration++;
+        }
+        if (c.start() != null) {
+            starts.merge(c.start(), 1, Integer::sum);
+        }
+        if (c.end() != null) {
+            ends.merge(c.end(), 1, Integer::sum);
+        }
+    }
+
+    public void remove(int subtaskId) {
+        Contribution c = contributions.remove(subtaskId);
+        if (c == null) {
+            return;
+        }
+        statusCounts[slot(c.status())]--;
+        if (c.duration() != null) {
+            durationMinutes -= c.duration().toMinutes();
+            withDuration--;
+        }
+        if (c.start() != null) {
+            decrement(starts, c.start());
+        }
+        if (c.end() != null) {
+            decrement(ends, c.end());
+        }
+    }
+
+    public void clear() {
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        durationMinutes = 0;
+        withDuration = 0;
+        starts.clear();
+        ends.clear();
+    }
+
+    public int size() {
+        return contributions.size();
+    }
+
+    // переносит агрегаты в поля эпика
+    public void applyTo(Epic epic) {
+        epic.setDuration(withDuration == 0 ? null : Duration.ofMinutes(durationMinutes));
+        epic.setStartTime(starts.isEmpty() ? null : starts.firstKey());
+        epic.setEndTime(ends.isEmpty() ? null : ends.lastKey());
+        epic.setStatus(status());
+    }
+
+    // пустой или все NEW -> NEW, все DONE -> DONE, иначе IN_PROGRESS
+    private TaskStatus status() {
+        int total = contributions.size();
+        if (total == statusCounts[TaskStatus.NEW.ordinal()]) {
+            return TaskStatus.NEW;
+        }
+        if (total == statusCounts[TaskStatus.DONE.ordinal()]) {
+            return TaskStatus.DONE;
+        }
+        return TaskStatus.IN_PROGRESS;
+    }
+
+    private static int slot(TaskStatus status) {
+        return status == null ? NO_STATUS : status.ordinal();
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        multiset.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+    }
+}
@@ -39,6 +39,8 @@ public class Subtask extends Task {
     public Task copy() {
         Subtask copy = new Subtask(getName(), getDescription(), getStatus(), getEpicId());
         copy.setId(this.getId());
+        copy.setDuration(getDuration());
+        copy.setStartTime(getStartTime());
         return copy;
     }
 }
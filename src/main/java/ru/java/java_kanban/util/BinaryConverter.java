@@ -0,0 +1,285 @@
+package ru.java.java_kanban.util;
+
+import ru.java.java_kanban.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+// бинарный снапшот: "KNBN" + версия, дальше записи [varint длина][тело]
+// тело: байт флагов (тип, статус, наличие времени), varint id, строки с префиксом длины,
+// старт в эпохальных минутах, длительность в минутах, varint id эпика у сабтаска
+public final class BinaryConverter {
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = {'K', 'N', 'B', 'N'};
+
+    private static final int TYPE_MASK = 0b11;
+    private static final int STATUS_SHIFT = 2;
+    private static final int HAS_START = 1 << 4;
+    private static final int HAS_DURATION = 1 << 5;
+    // старт с секундами/наносекундами не влезает в минуты - пишем точно
+    private static final int PRECISE_START = 1 << 6;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private BinaryConverter() {
+    }
+
+    public static boolean isBinary(byte[] head) {
+        if (head.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (head[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isBinary(ByteBuffer buffer) {
+        if (buffer.remaining() < MAGIC.length + 1) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(buffer.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void writeHeader(OutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+    }
+
+    // пропускает заголовок и проверяет версию
+    public static void readHeader(ByteBuffer buffer) {
+        if (!isBinary(buffer)) {
+            throw new IllegalArgumentException("Not a binary snapshot");
+        }
+        buffer.position(buffer.position() + MAGIC.length);
+        int version = buffer.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version: " + version);
+        }
+    }
+
+    public static byte[] toBytes(List<? extends Task> tasks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(tasks.size() * 48 + 8);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+        try {
+            writeHeader(out);
+            for (Task task : tasks) {
+                write(out, record, task);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // record - переиспользуемый буфер под тело записи
+    public static void write(OutputStream out, ByteArrayOutputStream record, Task task) throws IOException {
+        record.reset();
+        // у эпика время считается из сабтасков, хранить его незачем
+        boolean epic = task.getType() == TaskType.EPIC;
+        LocalDateTime start = epic ? null : task.getStartTime();
+        Long minutes = epic ? null : task.getDurationMinutes();
+        boolean precise = start != null && (start.getSecond() != 0 || start.getNano() != 0);
+
+        // статус не задан (например, пришёл без него в JSON) - сохраняем как NEW
+        TaskStatus status = task.getStatus() == null ? TaskStatus.NEW : task.getStatus();
+        int flags = task.getType().ordinal() | (status.ordinal() << STATUS_SHIFT);
+        if (start != null) {
+            flags |= HAS_START;
+        }
+        if (minutes != null) {
+            flags |= HAS_DURATION;
+        }
+        if (precise) {
+            flags |= PRECISE_START;
+        }
+        record.write(flags);
+        writeVarLong(record, task.getId());
+        writeString(record, task.getName());
+        writeString(record, task.getDescription());
+        if (start != null) {
+            long seconds = start.toEpochSecond(ZoneOffset.UTC);
+            if (precise) {
+                writeVarLong(record, zigZag(seconds));
+                writeVarLong(record, start.getNano());
+            } else {
+                writeVarLong(record, zigZag(Math.floorDiv(seconds, 60)));
+            }
+        }
+        if (minutes != null) {
+            writeVarLong(record, minutes);
+        }
+        if (task instanceof Subtask subtask) {
+            writeVarLong(record, subtask.getEpicId());
+        }
+
+        writeVarLong(out, record.size());
+        record.writeTo(out);
+    }
+
+    // читает все записи от текущей позиции до конца буфера
+    public static void readAll(ByteBuffer buffer, Consumer<Task> consumer) {
+        readHeader(buffer);
+        while (buffer.hasRemaining()) {
+            consumer.accept(read(buffer));
+        }
+    }
+
+    // конец записи, начинающейся с position, без её декодирования (для нарезки на чанки)
+    public static int recordEnd(ByteBuffer buffer, int position) {
+        long length = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get(position++);
+            length |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return position + (int) length;
+            }
+            shift += 7;
+        }
+    }
+
+    // позиция первой записи после заголовка
+    public static int headerLength() {
+        return MAGIC.length + 1;
+    }
+
+    public static Task read(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer);
+        int end = buffer.position() + length;
+
+        int flags = buffer.get() & 0xFF;
+        TaskType type = TYPES[flags & TYPE_MASK];
+        TaskStatus status = STATUSES[(flags >> STATUS_SHIFT) & 0b11];
+        int id = (int) readVarLong(buffer);
+        String name = readString(buffer);
+        String description = readString(buffer);
+
+        LocalDateTime start = null;
+        if ((flags & HAS_START) != 0) {
+            if ((flags & PRECISE_START) != 0) {
+                long seconds = unZigZag(readVarLong(buffer));
+                int nanos = (int) readVarLong(buffer);
+                start = LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+            } else {
+                start = LocalDateTime.ofEpochSecond(unZigZag(readVarLong(buffer)) * 60, 0, ZoneOffset.UTC);
+            }
+        }
+        Long minutes = (flags & HAS_DURATION) != 0 ? readVarLong(buffer) : null;
+
+        Task task = switch (type) {
+            case TASK -> new Task(name, description, status);
+            case EPIC -> {
+                Epic epic = new Epic(name, description);
+                epic.setStatus(status);
+                yield epic;
+            }
+            case SUBTASK -> new Subtask(name, description, status, (int) readVarLong(buffer));
+        };
+        task.setId(id);
+        if (type != TaskType.EPIC) {
+            task.setStartTime(start);
+            task.setDurationMinutes(minutes);
+        }
+        // неизвестные поля более новой версии записи пропускаются
+        buffer.position(end);
+        return task;
+    }
+
+    // миграция существующего CSV-снапшота в бинарный формат
+    public static void migrateFromCsv(Path csvFile, Path binaryFile) throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+        try (Reader in = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+             OutputStream out = Files.newOutputStream(binaryFile)) {
+            writeHeader(out);
+            CsvReader reader = new CsvReader(in);
+            if (reader.next() && CsvConverter.isLegacyHeader(reader)) {
+                reader.literalQuotes();
+            }
+            while (reader.next() && !reader.isBlankRecord()) {
+                Task task = CsvConverter.fromRecord(reader);
+                if (task != null) {
+                    write(out, record, task);
+                }
+            }
+        }
+    }
+
+    private static void writeString(OutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.write(0);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer);
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        String s;
+        if (buffer.hasArray()) {
+            s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return s;
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed varint");
+            }
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -2,103 +2,137 @@ package ru.java.java_kanban.util;
 
 import ru.java.java_kanban.model.*;
 
+import java.io.IOException;
+import java.nio.CharBuffer;
 import java.time.LocalDateTime;
 
+// отображение задач на CSV-записи; сам формат (кавычки, экранирование) - в CsvWriter/CsvReader
 public final class CsvConverter {
+    // так заголовок писали версии без кавычек: поля как есть, одна запись на строку
+    public static final String LEGACY_HEADER = "id,type,name,status,description,startTime,endTime,durationMinutes,epic";
+    // маркер в конце заголовка отличает файлы по RFC 4180 от старых
+    public static final String HEADER = LEGACY_HEADER + ",rfc4180";
+
+    private static final int ID = 0;
+    private static final int TYPE = 1;
+    private static final int NAME = 2;
+    private static final int STATUS = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int START = 5;
+    private static final int DURATION = 7;
+    private static final int EPIC = 8;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
 
     private CsvConverter() {
     }
 
-    private static String nullParseHelper(Object o) {
-        return o == null ? "" : o.toString();
+    public static void writeHeader(Appendable out) throws IOException {
+        out.append(HEADER).append('\n');
     }
 
-    private static LocalDateTime nullParseHelper(String s) {
-        if (s == null) {
-            return null;
-        }
-        s = s.trim();
-        if (s.isEmpty() || s.equalsIgnoreCase("null") ) {
-            return null;
-        }
-        return LocalDateTime.parse(s);
-    }
-
-    private static Long minutesParseHelper(String s) {
-        if (s == null) {
-            return null;
-        }
-        s = s.trim();
-        if (s.isEmpty() || s.equalsIgnoreCase("null") ) {
-            return null;
+    public static void write(CsvWriter writer, Task task) throws IOException {
+        LocalDateTime end = task.getEndTime();
+        // статус не задан (например, пришёл без него в JSON) - сохраняем как NEW
+        TaskStatus status = task.getStatus() == null ? TaskStatus.NEW : task.getStatus();
+        writer.field(task.getId())
+                .field(task.getType())
+                .field(task.getName())
+                .field(status)
+                .field(task.getDescription())
+                .field(task.getStartTime())
+                .field(end)
+                .field(task.getDurationMinutes());
+        if (task instanceof Subtask subtask) {
+            writer.field(subtask.getEpicId());
+        } else {
+            writer.field((CharSequence) null);
         }
-        return Long.parseLong(s);
+        writer.endRecord();
     }
 
+    // одиночная запись без завершающего перевода строки (журнал, тесты)
     public static String toCsvString(Task task) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(task.getId()).append(",");
-        sb.append(task.getType()).append(",");
-        sb.append(task.getName()).append(",");
-        sb.append(task.getStatus()).append(",");
-        sb.append(task.getDescription()).append(",");
-        sb.append(nullParseHelper(task.getStartTime())).append(",");
-        sb.append(nullParseHelper(task.getEndTime())).append(",");
-        sb.append(nullParseHelper(task.getDurationMinutes())).append(",");
-        sb.append("");
-
+        StringBuilder sb = new StringBuilder(96);
+        try {
+            write(new CsvWriter(sb), task);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        sb.setLength(sb.length() - 1);
         return sb.toString();
     }
 
     public static String toCsvString(Subtask subtask) {
+        return toCsvString((Task) subtask);
+    }
 
-        return toCsvString((Task) subtask)
-                + subtask.getEpicId();
+    public static boolean isLegacyHeader(CharSequence line) {
+        return LEGACY_HEADER.contentEquals(line);
+    }
+
+    // заголовок в текущей записи reader, записанный старой версией
+    public static boolean isLegacyHeader(CsvReader reader) {
+        return reader.fieldCount() == EPIC + 1 && reader.matches(ID, "id");
     }
 
     public static Task fromCvsString(String line) {
-        String[] parts = line.split(",", -1);
+        return fromCvsString(new CsvReader(CharBuffer.wrap(line)));
+    }
 
-        if (parts.length > 0 && "id".equalsIgnoreCase(parts[0])) {
-            return null;
-        }
+    // запись старого формата: кавычки в полях - часть текста
+    public static Task fromLegacyString(String line) {
+        return fromCvsString(new CsvReader(CharBuffer.wrap(line)).literalQuotes());
+    }
 
-        int id = Integer.parseInt(parts[0]);
-        TaskType type = TaskType.valueOf(parts[1]);
-        String name = parts[2];
-        String status = parts[3];
-        String description = parts[4];
+    private static Task fromCvsString(CsvReader reader) {
+        try {
+            if (!reader.next()) {
+                return null;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return fromRecord(reader);
+    }
 
-        LocalDateTime start = nullParseHelper(parts[5]);
-        LocalDateTime end   = nullParseHelper(parts[6]);
-        Long minutes        = minutesParseHelper(parts[7]);
+    // задача из текущей записи reader; null для строки заголовка
+    public static Task fromRecord(CsvReader reader) {
+        if (reader.matches(ID, "id")) {
+            return null;
+        }
+        int id = reader.intValue(ID);
+        if (reader.fieldCount() <= DURATION) {
+            throw new IllegalArgumentException("Malformed task record: id=" + id);
+        }
+        TaskType type = reader.enumValue(TYPE, TYPES);
+        String name = reader.string(NAME);
+        TaskStatus status = reader.enumValue(STATUS, STATUSES);
+        String description = reader.string(DESCRIPTION);
 
         switch (type) {
             case TASK:
-                Task task = new Task(name,
-                        description,
-                        TaskStatus.valueOf(status)
-                );
+                Task task = new Task(name, description, status);
                 task.setId(id);
-                task.setStartTime(start);
-                task.setDurationMinutes(minutes);
+                task.setStartTime(reader.dateTime(START));
+                task.setDurationMinutes(reader.nullableLong(DURATION));
                 return task;
 
             case EPIC:
                 Epic epic = new Epic(name, description);
                 epic.setId(id);
-                epic.setStatus(TaskStatus.valueOf(status));
+                epic.setStatus(status);
                 return epic;
 
             case SUBTASK:
-                int epicId = Integer.parseInt(parts[8]);
-                Subtask subtask = new Subtask(name,
-                        description,
-                        TaskStatus.valueOf(status),
-                        epicId);
+                if (reader.fieldCount() <= EPIC) {
+                    throw new IllegalArgumentException("Subtask " + id + " has no epic field");
+                }
+                Subtask subtask = new Subtask(name, description, status, reader.intValue(EPIC));
                 subtask.setId(id);
-                subtask.setStartTime(start);
-                subtask.setDurationMinutes(minutes);
+                subtask.setStartTime(reader.dateTime(START));
+                subtask.setDurationMinutes(reader.nullableLong(DURATION));
                 return subtask;
 
             default:
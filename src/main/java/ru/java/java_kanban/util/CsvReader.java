@@ -0,0 +1,339 @@
+package ru.java.java_kanban.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.time.LocalDateTime;
+
+// посимвольный разбор CSV по RFC 4180: кавычки, "" внутри них, переводы строк в полях;
+// буферы полей переиспользуются между записями, строки создаются только по запросу
+public final class CsvReader {
+    private static final int EOF = -1;
+    private static final int NONE = -2;
+
+    private final Reader in;
+    private final CharBuffer buffer;
+
+    private char[] chars = new char[256];
+    private int length;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] quoted = new boolean[16];
+    private int fields;
+    private int pushedBack = NONE;
+    private boolean literalQuotes;
+
+    public CsvReader(Reader in) {
+        this.in = in;
+        this.buffer = CharBuffer.allocate(8192).flip();
+    }
+
+    // уже декодированный текст целиком (чанк снапшота, строка журнала)
+    public CsvReader(CharBuffer chars) {
+        this.in = null;
+        this.buffer = chars;
+    }
+
+    // старый формат (до RFC 4180): кавычка - обычный символ, запись кончается на первом переводе строки
+    public CsvReader literalQuotes() {
+        this.literalQuotes = true;
+        return this;
+    }
+
+    // читает следующую запись; false - данные кончились
+    public boolean next() throws IOException {
+        fields = 0;
+        length = 0;
+        int c = read();
+        if (c == EOF) {
+            return false;
+        }
+        while (true) {
+            int start = length;
+            boolean isQuoted = c == '"' && !literalQuotes;
+            if (isQuoted) {
+                while (true) {
+                    c = read();
+                    if (c == EOF) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    append((char) c);
+                }
+                if (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+                    throw new IllegalArgumentException("Unexpected character after quoted field: " + (char) c);
+                }
+            } else {
+                c = readPlain(c);
+            }
+            addField(start, isQuoted);
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                int following = read();
+                if (following != '\n' && following != EOF) {
+                    pushedBack = following;
+                }
+            }
+            return true;
+        }
+    }
+
+    public int fieldCount() {
+        return fields;
+    }
+
+    // пустая строка (разделитель блока задач и истории)
+    public boolean isBlankRecord() {
+        return fields == 1 && !quoted[0] && starts[0] == ends[0];
+    }
+
+    // пустое поле без кавычек = null
+    public boolean isNull(int field) {
+        return !quoted[field] && starts[field] == ends[field];
+    }
+
+    public String string(int field) {
+        return isNull(field) ? null : new String(chars, starts[field], ends[field] - starts[field]);
+    }
+
+    public boolean matches(int field, String value) {
+        int start = starts[field];
+        int len = ends[field] - start;
+        if (len != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (Character.toLowerCase(chars[start + i]) != Character.toLowerCase(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // пустое поле или литерал null (так его писала старая версия)
+    public boolean isBlankOrNull(int field) {
+        int start = skipSpaces(field);
+        return start == trimmedEnd(field) || matchesTrimmed(field, "null");
+    }
+
+    public long longValue(int field) {
+        int start = skipSpaces(field);
+        int end = trimmedEnd(field);
+        if (start == end) {
+            throw new NumberFormatException("Empty number in field " + field);
+        }
+        boolean negative = chars[start] == '-';
+        if (negative || chars[start] == '+') {
+            start++;
+        }
+        if (start == end) {
+            throw new NumberFormatException("For input string: \"" + string(field) + "\"");
+        }
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + string(field) + "\"");
+            }
+            result = Math.multiplyExact(result, 10) + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    public int intValue(int field) {
+        return Math.toIntExact(longValue(field));
+    }
+
+    public Long nullableLong(int field) {
+        return isBlankOrNull(field) ? null : longValue(field);
+    }
+
+    public LocalDateTime dateTime(int field) {
+        if (isBlankOrNull(field)) {
+            return null;
+        }
+        int start = skipSpaces(field);
+        int end = trimmedEnd(field);
+        LocalDateTime fast = isoMinutesOrSeconds(start, end);
+        return fast != null ? fast : LocalDateTime.parse(CharBuffer.wrap(chars, start, end - start));
+    }
+
+    // так пишет LocalDateTime.toString() без долей секунды: yyyy-MM-ddTHH:mm[:ss] - разбирается
+    // прямо по цифрам; остальное (доли секунды, мусор) уходит в общий парсер
+    private LocalDateTime isoMinutesOrSeconds(int start, int end) {
+        int len = end - start;
+        if ((len != 16 && len != 19) || chars[start + 4] != '-' || chars[start + 7] != '-'
+                || chars[start + 10] != 'T' || chars[start + 13] != ':' || (len == 19 && chars[start + 16] != ':')) {
+            return null;
+        }
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        int hour = digits(start + 11, 2);
+        int minute = digits(start + 14, 2);
+        int second = len == 19 ? digits(start + 17, 2) : 0;
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        // недопустимые значения (месяц 13 и т.п.) бросают DateTimeException, как и parse
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    // -1, если среди count символов не только цифры
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    public <E extends Enum<E>> E enumValue(int field, E[] values) {
+        for (E value : values) {
+            if (matchesExact(field, value.name())) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("No enum constant " + string(field));
+    }
+
+    private boolean matchesExact(int field, String value) {
+        int start = starts[field];
+        if (ends[field] - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (chars[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesTrimmed(int field, String value) {
+        int start = skipSpaces(field);
+        int end = trimmedEnd(field);
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.toLowerCase(chars[start + i]) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipSpaces(int field) {
+        int i = starts[field];
+        while (i < ends[field] && chars[i] <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private int trimmedEnd(int field) {
+        int i = ends[field];
+        while (i > starts[field] && chars[i - 1] <= ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    // поле без кавычек: после первого символа весь отрезок до разделителя копируется из буфера одним куском
+    private int readPlain(int c) throws IOException {
+        while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+            append((char) c);
+            if (pushedBack == NONE && buffer.hasArray()) {
+                char[] source = buffer.array();
+                int offset = buffer.arrayOffset();
+                int from = buffer.position();
+                int to = from;
+                int limit = buffer.limit();
+                while (to < limit) {
+                    char next = source[offset + to];
+                    if (next == ',' || next == '\n' || next == '\r') {
+                        break;
+                    }
+                    to++;
+                }
+                append(source, offset + from, to - from);
+                buffer.position(to);
+            }
+            c = read();
+        }
+        return c;
+    }
+
+    private void append(char[] source, int from, int count) {
+        if (length + count > chars.length) {
+            char[] grown = new char[Math.max(chars.length * 2, length + count)];
+            System.arraycopy(chars, 0, grown, 0, length);
+            chars = grown;
+        }
+        System.arraycopy(source, from, chars, length, count);
+        length += count;
+    }
+
+    private void append(char c) {
+        if (length == chars.length) {
+            char[] grown = new char[chars.length * 2];
+            System.arraycopy(chars, 0, grown, 0, length);
+            chars = grown;
+        }
+        chars[length++] = c;
+    }
+
+    private void addField(int start, boolean isQuoted) {
+        if (fields == starts.length) {
+            int size = fields * 2;
+            int[] grownStarts = new int[size];
+            int[] grownEnds = new int[size];
+            boolean[] grownQuoted = new boolean[size];
+            System.arraycopy(starts, 0, grownStarts, 0, fields);
+            System.arraycopy(ends, 0, grownEnds, 0, fields);
+            System.arraycopy(quoted, 0, grownQuoted, 0, fields);
+            starts = grownStarts;
+            ends = grownEnds;
+            quoted = grownQuoted;
+        }
+        starts[fields] = start;
+        ends[fields] = length;
+        quoted[fields] = isQuoted;
+        fields++;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (!buffer.hasRemaining() && !refill()) {
+            return EOF;
+        }
+        return buffer.get();
+    }
+
+    private boolean refill() throws IOException {
+        if (in == null) {
+            return false;
+        }
+        buffer.clear();
+        int n = in.read(buffer);
+        buffer.flip();
+        return n > 0;
+    }
+}
@@ -0,0 +1,131 @@
+package ru.java.java_kanban.util;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+// потоковая запись CSV по RFC 4180 прямо в общий Writer/StringBuilder, без строки на каждую запись
+// null пишется пустым полем, пустая строка - как "" (чтобы при чтении их можно было различить)
+public final class CsvWriter {
+    private final Appendable out;
+    private final char[] digits = new char[20];
+    private boolean first = true;
+
+    public CsvWriter(Appendable out) {
+        this.out = out;
+    }
+
+    public CsvWriter field(CharSequence value) throws IOException {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            out.append(value);
+            return this;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separator();
+        appendLong(value);
+        return this;
+    }
+
+    public CsvWriter field(Long value) throws IOException {
+        if (value == null) {
+            separator();
+            return this;
+        }
+        return field(value.longValue());
+    }
+
+    public CsvWriter field(Enum<?> value) throws IOException {
+        return field(value == null ? null : value.name());
+    }
+
+    // ISO-формат как у LocalDateTime.toString(), но без промежуточной строки в частом случае (без наносекунд)
+    public CsvWriter field(LocalDateTime value) throws IOException {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        if (value.getNano() != 0 || value.getYear() < 0 || value.getYear() > 9999) {
+            out.append(value.toString());
+            return this;
+        }
+        appendPadded(value.getYear(), 4);
+        out.append('-');
+        appendPadded(value.getMonthValue(), 2);
+        out.append('-');
+        appendPadded(value.getDayOfMonth(), 2);
+        out.append('T');
+        appendPadded(value.getHour(), 2);
+        out.append(':');
+        appendPadded(value.getMinute(), 2);
+        if (value.getSecond() != 0) {
+            out.append(':');
+            appendPadded(value.getSecond(), 2);
+        }
+        return this;
+    }
+
+    public void endRecord() throws IOException {
+        out.append('\n');
+        first = true;
+    }
+
+    private void separator() throws IOException {
+        if (!first) {
+            out.append(',');
+        }
+        first = false;
+    }
+
+    private static boolean needsQuotes(CharSequence value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void appendLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            out.append(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = pos; i < digits.length; i++) {
+            out.append(digits[i]);
+        }
+    }
+
+    private void appendPadded(int value, int width) throws IOException {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+}
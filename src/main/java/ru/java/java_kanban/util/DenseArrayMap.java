@@ -0,0 +1,247 @@
+package ru.java.java_kanban.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// таблица по неотрицательному int-ключу: элемент лежит прямо в ячейке key массива, массив нарезан на чанки
+// по CHUNK_SIZE и чанки заводятся по мере надобности. Рассчитана на плотные id подряд (nextId менеджера):
+// поиск - два чтения массива без хеширования, обход - по возрастанию id.
+// Освобождённые ячейки учитываются по чанкам; опустевший чанк отдаётся сразу, compact() ужимает каталог.
+// null-значения запрещены, итераторы не поддерживают remove()
+public class DenseArrayMap<V> extends AbstractMap<Integer, V> {
+    static final int CHUNK_BITS = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Object[][] chunks = new Object[4][];
+    private int[] live = new int[4];
+    private int size;
+    private int allocatedChunks;
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key < 0) {
+            return null;
+        }
+        int chunk = key >>> CHUNK_BITS;
+        if (chunk >= chunks.length || chunks[chunk] == null) {
+            return null;
+        }
+        return (V) chunks[chunk][key & CHUNK_MASK];
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V putInt(int key, V value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("DenseArrayMap key must not be negative: " + key);
+        }
+        if (value == null) {
+            throw new NullPointerException("DenseArrayMap does not store null values");
+        }
+        int chunk = key >>> CHUNK_BITS;
+        if (chunk >= chunks.length) {
+            int length = Math.max(chunks.length * 2, chunk + 1);
+            chunks = Arrays.copyOf(chunks, length);
+            live = Arrays.copyOf(live, length);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Object[CHUNK_SIZE];
+            allocatedChunks++;
+        }
+        Object[] slots = chunks[chunk];
+        V old = (V) slots[key & CHUNK_MASK];
+        slots[key & CHUNK_MASK] = value;
+        if (old == null) {
+            live[chunk]++;
+            size++;
+        }
+        return old;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        V old = get(key);
+        if (old == null) {
+            return null;
+        }
+        int chunk = key >>> CHUNK_BITS;
+        chunks[chunk][key & CHUNK_MASK] = null;
+        size--;
+        if (--live[chunk] == 0) {
+            chunks[chunk] = null;
+            allocatedChunks--;
+        }
+        return old;
+    }
+
+    // свободные ячейки в занятых чанках: дыры от удалений
+    public int freeSlots() {
+        return allocatedChunks * CHUNK_SIZE - size;
+    }
+
+    public int allocatedChunks() {
+        return allocatedChunks;
+    }
+
+    // ужимает каталог чанков до последнего занятого
+    public void compact() {
+        int length = chunks.length;
+        while (length > 0 && chunks[length - 1] == null) {
+            length--;
+        }
+        length = Math.max(length, 1);
+        if (length < chunks.length) {
+            chunks = Arrays.copyOf(chunks, length);
+            live = Arrays.copyOf(live, length);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(chunks, null);
+        Arrays.fill(live, 0);
+        size = 0;
+        allocatedChunks = 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer k ? get(k.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer k && containsKey(k.intValue());
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return putInt(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer k ? remove(k.intValue()) : null;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    V at(int key, Object value) {
+                        return (V) value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Integer> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Integer at(int key, Object value) {
+                        return key;
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    Entry<Integer, V> at(int key, Object value) {
+                        return new SimpleImmutableEntry<>(key, (V) value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // обход по возрастанию ключа, пустые чанки пропускаются целиком
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private int next = advance(0);
+
+        abstract T at(int key, Object value);
+
+        private int advance(long key) {
+            long limit = (long) chunks.length << CHUNK_BITS;
+            while (key < limit) {
+                Object[] slots = chunks[(int) (key >>> CHUNK_BITS)];
+                if (slots == null) {
+                    key = ((key >>> CHUNK_BITS) + 1) << CHUNK_BITS;
+                    continue;
+                }
+                if (slots[(int) key & CHUNK_MASK] != null) {
+                    return (int) key;
+                }
+                key++;
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public T next() {
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+            int key = next;
+            T item = at(key, chunks[key >>> CHUNK_BITS][key & CHUNK_MASK]);
+            next = advance(key + 1L);
+            return item;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.java.java_kanban.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+// растущий список на int[]: без Integer на каждый элемент. Для совместимости - List<Integer>,
+// remove(Object) удаляет значение, remove(int) - по индексу, как у обычного списка
+public class IntList extends AbstractList<Integer> implements RandomAccess {
+    private int[] items;
+    private int size;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int capacity) {
+        items = new int[Math.max(capacity, 1)];
+    }
+
+    public IntList(Collection<Integer> values) {
+        this(values.size());
+        // напрямую в массив: переопределяемый addInt из конструктора не вызываем
+        for (Integer value : values) {
+            items[size++] = value;
+        }
+    }
+
+    public int getInt(int index) {
+        checkIndex(index);
+        return items[index];
+    }
+
+    public void addInt(int value) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+        }
+        items[size++] = value;
+    }
+
+    public int indexOfInt(int value) {
+        for (int i = 0; i < size; i++) {
+            if (items[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsInt(int value) {
+        return indexOfInt(value) >= 0;
+    }
+
+    // удаляет первое вхождение значения
+    public boolean removeInt(int value) {
+        int i = indexOfInt(value);
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOf(items, size);
+    }
+
+    public void sort() {
+        Arrays.sort(items, 0, size);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer value) {
+        checkIndex(index);
+        int old = items[index];
+        items[index] = value;
+        return old;
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        addInt(value);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, Integer value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        if (size == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+        }
+        System.arraycopy(items, index, items, index + 1, size - index);
+        items[index] = value;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Integer remove(int index) {
+        checkIndex(index);
+        int old = items[index];
+        removeAt(index);
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer value && removeInt(value);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer value && containsInt(value);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return o instanceof Integer value ? indexOfInt(value) : -1;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(items, index + 1, items, index, size - index - 1);
+        size--;
+        modCount++;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package ru.java.java_kanban.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// неизменяемое дерево поиска (декартово дерево): put/remove не трогают старый экземпляр, а возвращают новый,
+// копируя только путь от корня до изменённого узла - O(log n) новых узлов, остальное дерево общее.
+// Приоритет узла выводится из хеша ключа, поэтому форма дерева зависит только от набора ключей.
+// Старую версию можно спокойно читать из других потоков, пока пишется новая
+public final class PersistentTreap<K, V> {
+    private record Node<K, V>(K key, V value, int priority, Node<K, V> left, Node<K, V> right, int size) {
+        static <K, V> Node<K, V> of(K key, V value, int priority, Node<K, V> left, Node<K, V> right) {
+            return new Node<>(key, value, priority, left, right, 1 + sizeOf(left) + sizeOf(right));
+        }
+
+        Node<K, V> withLeft(Node<K, V> newLeft) {
+            return newLeft == left ? this : of(key, value, priority, newLeft, right);
+        }
+
+        Node<K, V> withRight(Node<K, V> newRight) {
+            return newRight == right ? this : of(key, value, priority, left, newRight);
+        }
+    }
+
+    private final Comparator<? super K> order;
+    private final Node<K, V> root;
+
+    private PersistentTreap(Comparator<? super K> order, Node<K, V> root) {
+        this.order = order;
+        this.root = root;
+    }
+
+    public static <K extends Comparable<? super K>, V> PersistentTreap<K, V> empty() {
+        return new PersistentTreap<>(Comparator.naturalOrder(), null);
+    }
+
+    public static <K, V> PersistentTreap<K, V> empty(Comparator<? super K> order) {
+        return new PersistentTreap<>(order, null);
+    }
+
+    public int size() {
+        return sizeOf(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int c = order.compare(key, node.key());
+            if (c == 0) {
+                return node.value();
+            }
+            node = c < 0 ? node.left() : node.right();
+        }
+        return null;
+    }
+
+    public PersistentTreap<K, V> put(K key, V value) {
+        Node<K, V> updated = insert(root, key, value, priority(key));
+        return updated == root ? this : new PersistentTreap<>(order, updated);
+    }
+
+    public PersistentTreap<K, V> remove(K key) {
+        Node<K, V> updated = delete(root, key);
+        return updated == root ? this : new PersistentTreap<>(order, updated);
+    }
+
+    // значения по возрастанию ключа
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        forEach((key, value) -> values.add(value));
+        return values;
+    }
+
+    // до limit значений с ключами в (from, to] по возрастанию; поддеревья левее from не обходятся,
+    // так что стоимость - O(log n + limit), а не размер дерева
+    public List<V> between(K from, K to, int limit) {
+        List<V> values = new ArrayList<>();
+        List<Node<K, V>> stack = new ArrayList<>();
+        Node<K, V> node = root;
+        while (values.size() < limit) {
+            while (node != null) {
+                if (order.compare(node.key(), from) > 0) {
+                    stack.add(node);
+                    node = node.left();
+                } else {
+                    node = node.right();
+                }
+            }
+            if (stack.isEmpty()) {
+                break;
+            }
+            node = stack.remove(stack.size() - 1);
+            if (order.compare(node.key(), to) > 0) {
+                break;
+            }
+            values.add(node.value());
+            node = node.right();
+        }
+        return values;
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        // обход без рекурсии: глубина ожидаемо O(log n), но стек вызовов тут ни к чему
+        List<Node<K, V>> stack = new ArrayList<>();
+        Node<K, V> node = root;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.add(node);
+                node = node.left();
+            }
+            node = stack.remove(stack.size() - 1);
+            action.accept(node.key(), node.value());
+            node = node.right();
+        }
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value, int priority) {
+        if (node == null) {
+            return Node.of(key, value, priority, null, null);
+        }
+        int c = order.compare(key, node.key());
+        if (c == 0) {
+            return node.value() == value ? node : Node.of(key, value, node.priority(), node.left(), node.right());
+        }
+        if (c < 0) {
+            Node<K, V> left = insert(node.left(), key, value, priority);
+            Node<K, V> updated = node.withLeft(left);
+            return left.priority() > updated.priority() ? rotateRight(updated) : updated;
+        }
+        Node<K, V> right = insert(node.right(), key, value, priority);
+        Node<K, V> updated = node.withRight(right);
+        return right.priority() > updated.priority() ? rotateLeft(updated) : updated;
+    }
+
+    private Node<K, V> delete(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int c = order.compare(key, node.key());
+        if (c < 0) {
+            return node.withLeft(delete(node.left(), key));
+        }
+        if (c > 0) {
+            return node.withRight(delete(node.right(), key));
+        }
+        return merge(node.left(), node.right());
+    }
+
+    // все ключи a меньше всех ключей b
+    private static <K, V> Node<K, V> merge(Node<K, V> a, Node<K, V> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority() > b.priority()) {
+            return Node.of(a.key(), a.value(), a.priority(), a.left(), merge(a.right(), b));
+        }
+        return Node.of(b.key(), b.value(), b.priority(), merge(a, b.left()), b.right());
+    }
+
+    private static <K, V> Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> left = node.left();
+        Node<K, V> lowered = Node.of(node.key(), node.value(), node.priority(), left.right(), node.right());
+        return Node.of(left.key(), left.value(), left.priority(), left.left(), lowered);
+    }
+
+    private static <K, V> Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> right = node.right();
+        Node<K, V> lowered = Node.of(node.key(), node.value(), node.priority(), node.left(), right.left());
+        return Node.of(right.key(), right.value(), right.priority(), lowered, right.right());
+    }
+
+    private static int sizeOf(Node<?, ?> node) {
+        return node == null ? 0 : node.size();
+    }
+
+    // перемешивание хеша (финализатор murmur3): у последовательных id приоритеты не коррелируют
+    private static int priority(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,96 @@
+package ru.java.java_kanban.event;
+
+import org.junit.jupiter.api.Test;
+import ru.java.java_kanban.manager.event.EventRing;
+import ru.java.java_kanban.manager.event.EventSubscription;
+import ru.java.java_kanban.manager.event.TaskEvent;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventRingTest {
+
+    private static Task task(int id) {
+        Task t = new Task("T" + id, "D", TaskStatus.NEW);
+        t.setId(id);
+        return t;
+    }
+
+    @Test
+    public void subscriber_readsOnlyEventsAfterItsPosition() {
+        EventRing ring = new EventRing(8);
+        ring.publish(TaskEvent.Kind.CREATED, null, task(1));
+        EventSubscription fresh = ring.subscribe();
+        EventSubscription all = ring.subscribe(0);
+        ring.publish(TaskEvent.Kind.DELETED, task(1), null);
+
+        List<TaskEvent> events = all.poll(10);
+        assertEquals(List.of(1L, 2L), events.stream().map(TaskEvent::sequence).toList());
+        assertEquals(TaskEvent.Kind.DELETED, fresh.poll(10).getFirst().kind());
+        assertTrue(all.poll(10).isEmpty());
+        assertEquals(2, all.position());
+    }
+
+    @Test
+    public void slowSubscriber_skipsOverwrittenEvents_andCountsThem() {
+        EventRing ring = new EventRing(5);
+        assertEquals(8, ring.capacity());
+        EventSubscription slow = ring.subscribe();
+        for (int i = 1; i <= 20; i++) {
+            ring.publish(TaskEvent.Kind.CREATED, null, task(i));
+        }
+
+        List<TaskEvent> events = slow.poll(100);
+
+        assertEquals(12, slow.dropped());
+        assertEquals(8, events.size());
+        assertEquals(13, events.getFirst().id());
+        assertEquals(20, events.getLast().id());
+    }
+
+    @Test
+    public void poll_withTimeout_returnsEmpty_whenNothingHappens() {
+        EventSubscription subscription = new EventRing().subscribe();
+        assertTrue(subscription.poll(10, Duration.ofMillis(20)).isEmpty());
+    }
+
+    @Test
+    public void concurrentWriters_neverWait_andReaderSeesEveryEventInOrder() throws Exception {
+        EventRing ring = new EventRing(1 << 16);
+        EventSubscription reader = ring.subscribe();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        ring.publish(TaskEvent.Kind.CREATED, null, task(i));
+                    }
+                }));
+            }
+            List<TaskEvent> seen = new ArrayList<>();
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (seen.size() < 20_000 && System.nanoTime() < deadline) {
+                seen.addAll(reader.poll(1_000, Duration.ofMillis(100)));
+            }
+            assertEquals(20_000, seen.size());
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            for (int i = 0; i < seen.size(); i++) {
+                assertEquals(i + 1, seen.get(i).sequence());
+            }
+            assertEquals(0, reader.dropped());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package ru.java.java_kanban.http;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.java.java_kanban.manager.history.InMemoryHistoryManager;
+import ru.java.java_kanban.manager.task.InMemoryTaskManager;
+import ru.java.java_kanban.manager.task.TaskManager;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskManagerEventsTest {
+
+    private HttpTaskServer server;
+    private TaskManager manager;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        manager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        server = new HttpTaskServer(manager);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<InputStream> open(String path, String lastEventId) throws Exception {
+        HttpRequest.Builder req = HttpRequest.newBuilder()
+                .uri(URI.create(server.getBaseUrl() + path))
+                .GET();
+        if (lastEventId != null) {
+            req.header("Last-Event-ID", lastEventId);
+        }
+        return client.send(req.build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    // следующее событие ленты как поле -> значение; комментарии и retry пропускаются
+    private Map<String, String> nextEvent(BufferedReader reader) throws Exception {
+        Map<String, String> fields = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (fields.containsKey("event")) {
+                    return fields;
+                }
+                fields.clear();
+                continue;
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                fields.put(line.substring(0, colon), line.substring(colon + 1).trim());
+            }
+        }
+        return fields;
+    }
+
+    private BufferedReader reader(HttpResponse<InputStream> resp) {
+        return new BufferedReader(new InputStreamReader(resp.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void stream_deliversChanges_afterSubscription() {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            manager.addTask(new Task("before", "D", TaskStatus.NEW));
+            HttpResponse<InputStream> resp = open("/events", null);
+            assertEquals(200, resp.statusCode());
+            assertTrue(resp.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+
+            Task task = manager.addTask(new Task("after", "D", TaskStatus.NEW));
+            Task done = task.copy();
+            done.setStatus(TaskStatus.DONE);
+            manager.updateTask(done);
+
+            try (BufferedReader reader = reader(resp)) {
+                Map<String, String> created = nextEvent(reader);
+                assertEquals("created", created.get("event"));
+                assertTrue(created.get("id").endsWith("-2"), created.get("id"));
+                JsonObject data = JsonParser.parseString(created.get("data")).getAsJsonObject();
+                assertEquals("TASK", data.get("type").getAsString());
+                assertEquals("after", data.getAsJsonObject("after").get("name").getAsString());
+
+                Map<String, String> updated = nextEvent(reader);
+                assertEquals("updated", updated.get("event"));
+                JsonObject change = JsonParser.parseString(updated.get("data")).getAsJsonObject();
+                assertEquals("NEW", change.getAsJsonObject("before").get("status").getAsString());
+                assertEquals("DONE", change.getAsJsonObject("after").get("status").getAsString());
+            }
+        });
+    }
+
+    @Test
+    void lastEventId_resumesAfterGivenSequence() {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            manager.addTask(new Task("one", "D", TaskStatus.NEW));
+            manager.addTask(new Task("two", "D", TaskStatus.NEW));
+
+            String first;
+            HttpResponse<InputStream> fromStart = open("/events?after=0", null);
+            try (BufferedReader reader = reader(fromStart)) {
+                first = nextEvent(reader).get("id");
+                assertTrue(first.endsWith("-1"), first);
+            }
+
+            HttpResponse<InputStream> resp = open("/events", first);
+            try (BufferedReader reader = reader(resp)) {
+                Map<String, String> event = nextEvent(reader);
+                assertEquals("two", JsonParser.parseString(event.get("data")).getAsJsonObject()
+                        .getAsJsonObject("after").get("name").getAsString());
+                assertTrue(event.get("id").endsWith("-2"));
+            }
+        });
+    }
+
+    @Test
+    void lastEventId_fromPreviousRun_asksToRefetch() {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            HttpResponse<InputStream> resp = open("/events", "500");
+            try (BufferedReader reader = reader(resp)) {
+                assertEquals("overflow", nextEvent(reader).get("event"));
+            }
+        });
+    }
+
+    @Test
+    void lastEventId_ofOtherRun_withLowerSequence_asksToRefetch() {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            manager.addTask(new Task("one", "D", TaskStatus.NEW));
+            manager.addTask(new Task("two", "D", TaskStatus.NEW));
+
+            // номер не больше текущего, но метка запуска чужая
+            HttpResponse<InputStream> resp = open("/events", "oldrun-1");
+            try (BufferedReader reader = reader(resp)) {
+                assertEquals("overflow", nextEvent(reader).get("event"));
+                manager.addTask(new Task("three", "D", TaskStatus.NEW));
+                Map<String, String> next = nextEvent(reader);
+                assertTrue(next.get("id").endsWith("-3"), next.get("id"));
+            }
+        });
+    }
+
+    @Test
+    void badLastEventId_returns400() throws Exception {
+        HttpResponse<InputStream> resp = open("/events", "abc");
+        assertEquals(400, resp.statusCode());
+        resp.body().close();
+    }
+
+    @Test
+    void post_isNotAllowed() throws Exception {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(server.getBaseUrl() + "/events"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        assertEquals(405, client.send(req, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+}
@@ -0,0 +1,67 @@
+package ru.java.java_kanban.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.java.java_kanban.manager.history.InMemoryHistoryManager;
+import ru.java.java_kanban.manager.task.InMemoryTaskManager;
+import ru.java.java_kanban.manager.task.TaskManager;
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskManagerSearchTest {
+
+    private HttpTaskServer server;
+    private TaskManager manager;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        manager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        server = new HttpTaskServer(manager);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(server.getBaseUrl() + path))
+                .GET().build();
+        return client.send(req, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void search_returnsMatchesOfAllTypes() throws Exception {
+        Epic epic = manager.addEpic(new Epic("Backend", "api rework"));
+        Subtask sub = manager.addSubtask(new Subtask("Rework auth", "D", TaskStatus.NEW, epic.getId()));
+        manager.addTask(new Task("Frontend", "css", TaskStatus.NEW));
+
+        var resp = get("/search?q=rework");
+        assertEquals(200, resp.statusCode());
+        Task[] found = BaseHttpHandler.gson().fromJson(resp.body(), Task[].class);
+        assertEquals(2, found.length);
+        // слово в имени весит больше, чем в описании
+        assertEquals(sub.getId(), found[0].getId());
+        assertEquals(epic.getId(), found[1].getId());
+    }
+
+    @Test
+    void search_withoutQuery_returns400() throws Exception {
+        assertEquals(400, get("/search").statusCode());
+        assertEquals(400, get("/search?q=a&limit=x").statusCode());
+    }
+}
@@ -162,4 +162,32 @@ public class HttpTaskManagerSubtasksTest {
         var resp = client.send(req, HttpResponse.BodyHandlers.ofString());
         assertEquals(400, resp.statusCode());
     }
+
+    @Test
+    void getByStatus_returnsOnlyMatching() throws Exception {
+        Epic epic = manager.addEpic(new Epic("Parent", "D"));
+        manager.addSubtask(new Subtask("New", "D", TaskStatus.NEW, epic.getId()));
+        Subtask done = manager.addSubtask(new Subtask("Done", "D", TaskStatus.DONE, epic.getId()));
+
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(server.getBaseUrl() + "/subtasks?status=DONE"))
+                .GET().build();
+
+        var resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, resp.statusCode());
+        Subtask[] found = BaseHttpHandler.gson().fromJson(resp.body(), Subtask[].class);
+        assertEquals(1, found.length);
+        assertEquals(done.getId(), found[0].getId());
+        assertEquals(epic.getId(), found[0].getEpicId());
+    }
+
+    @Test
+    void badStatus_returns400() throws Exception {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(server.getBaseUrl() + "/subtasks?status=LATER"))
+                .GET().build();
+
+        var resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, resp.statusCode());
+    }
 }
@@ -15,6 +15,8 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -130,4 +132,66 @@ public class HttpTaskManagerTasksTest {
         var resp = client.send(req, HttpResponse.BodyHandlers.ofString());
         assertEquals(400, resp.statusCode());
     }
+
+    @Test
+    void getPage_walksAllTasksByCursor() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            manager.addTask(new Task("T" + i, "D", i % 2 == 0 ? TaskStatus.NEW : TaskStatus.DONE));
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        String after = "0";
+        while (after != null) {
+            HttpRequest req = HttpRequest.newBuilder()
+                    .uri(URI.create(server.getBaseUrl() + "/tasks?limit=2&after=" + after))
+                    .GET().build();
+            var resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, resp.statusCode());
+            for (Task t : BaseHttpHandler.gson().fromJson(resp.body(), Task[].class)) {
+                seen.add(t.getId());
+            }
+            after = resp.headers().firstValue("X-Next-After").orElse(null);
+        }
+
+        assertEquals(manager.getAllTasks().stream().map(Task::getId).toList(), seen);
+    }
+
+    @Test
+    void getPage_badLimit_returns400() throws Exception {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(server.getBaseUrl() + "/tasks?limit=0"))
+                .GET().build();
+
+        var resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, resp.statusCode());
+    }
+
+    @Test
+    void postBatch_returns201_orRejectsWholeBatch() throws Exception {
+        Task a = new Task("A", "D", TaskStatus.NEW);
+        a.setStartTime(LocalDateTime.parse("2025-09-01T10:00"));
+        a.setDuration(Duration.ofMinutes(30));
+        Task b = new Task("B", "D", TaskStatus.NEW);
+        String json = BaseHttpHandler.gson().toJson(List.of(a, b));
+
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(server.getBaseUrl() + "/tasks/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        var resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, resp.statusCode());
+        assertEquals(2, BaseHttpHandler.gson().fromJson(resp.body(), Task[].class).length);
+
+        Task overlapping = new Task("C", "D", TaskStatus.NEW);
+        overlapping.setStartTime(LocalDateTime.parse("2025-09-01T10:15"));
+        overlapping.setDuration(Duration.ofMinutes(30));
+        String conflict = BaseHttpHandler.gson().toJson(List.of(new Task("D", "D", TaskStatus.NEW), overlapping));
+        req = HttpRequest.newBuilder()
+                .uri(URI.create(server.getBaseUrl() + "/tasks/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(conflict))
+                .build();
+        resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, resp.statusCode());
+        assertEquals(2, manager.getAllTasks().size());
+    }
 }
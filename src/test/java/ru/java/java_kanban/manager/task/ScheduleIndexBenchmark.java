@@ -0,0 +1,99 @@
+package ru.java.java_kanban.manager.task;
+
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Predicate;
+
+// не тест, ручной замер: проверка пересечений через ScheduleIndex против прежнего прохода по всем задачам.
+// Лежит в пакете менеджера, потому что индекс package-private. Запуск:
+//   mvn test-compile
+//   java -cp target/classes:target/test-classes ru.java.java_kanban.manager.task.ScheduleIndexBenchmark [размеры...]
+public final class ScheduleIndexBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int PROBES = 4096;
+    // на полный проход столько сравнений на размер, чтобы 1M укладывался в секунды
+    private static final long SCAN_BUDGET = 400_000_000L;
+
+    private static volatile int sink;
+
+    private ScheduleIndexBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10_000, 100_000, 1_000_000};
+        System.out.printf("%10s %14s %16s %16s %10s%n",
+                "items", "index load ms", "index ns/check", "scan ns/check", "speedup");
+        for (int n : sizes) {
+            run(n);
+        }
+    }
+
+    private static void run(int n) {
+        // задачи по 30 минут в начале каждого часа: попарно не пересекаются
+        List<Task> tasks = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            tasks.add(timed(i + 1, i * 60L, 30));
+        }
+        ScheduleIndex index = new ScheduleIndex();
+        long started = System.nanoTime();
+        for (Task task : tasks) {
+            index.put(task);
+        }
+        double loadMillis = (System.nanoTime() - started) / 1e6;
+
+        // половина кандидатов задевает задачу, половина ложится в промежуток - там проход идёт до конца
+        Random random = new Random(42);
+        Task[] probes = new Task[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            long hour = random.nextInt(n);
+            probes[i] = timed(null, hour * 60 + (i % 2 == 0 ? 10 : 35), 20);
+        }
+
+        double indexed = nanosPerCheck(probes, 200_000, index::conflicts);
+        int scanChecks = (int) Math.max(20, Math.min(20_000, SCAN_BUDGET / n));
+        double scanned = nanosPerCheck(probes, scanChecks, candidate -> linearConflicts(tasks, candidate));
+        System.out.printf("%10d %14.1f %16.0f %16.0f %9.0fx%n",
+                n, loadMillis, indexed, scanned, scanned / indexed);
+    }
+
+    // прежний InMemoryTaskManager.hasOverlaps
+    private static boolean linearConflicts(List<Task> tasks, Task candidate) {
+        return tasks.stream()
+                .filter(Task::hasSchedule)
+                .filter(t -> !Objects.equals(t.getId(), candidate.getId()))
+                .anyMatch(other -> candidate.getStartTime().isBefore(other.getEndTime())
+                        && other.getStartTime().isBefore(candidate.getEndTime()));
+    }
+
+    // прогрев той же длины, затем замер; результат копится в sink, чтобы JIT не выкинул проверки
+    private static double nanosPerCheck(Task[] probes, int checks, Predicate<Task> check) {
+        int hits = 0;
+        for (int i = 0; i < checks; i++) {
+            hits += check.test(probes[i % probes.length]) ? 1 : 0;
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < checks; i++) {
+            hits += check.test(probes[i % probes.length]) ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - started;
+        sink = hits;
+        return (double) elapsed / checks;
+    }
+
+    private static Task timed(Integer id, long startMinute, long minutes) {
+        Task task = new Task("T", "D", TaskStatus.NEW);
+        task.setId(id);
+        task.setStartTime(BASE.plusMinutes(startMinute));
+        task.setDurationMinutes(minutes);
+        return task;
+    }
+}
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Test;
 import ru.java.java_kanban.manager.history.InMemoryHistoryManager;
 import ru.java.java_kanban.manager.task.InMemoryTaskManager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class EpicTest {
@@ -96,4 +99,42 @@ public class EpicTest {
         Epic stored = manager.getEpicById(epic.getId());
         assertEquals(TaskStatus.IN_PROGRESS, stored.getStatus());
     }
+
+    @Test
+    public void aggregates_followEditsOfSubtasks_inPlace() {
+        InMemoryTaskManager manager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        Epic epic = manager.addEpic(new Epic("E", "D"));
+        Subtask early = subtask(epic.getId(), 9, 30);
+        Subtask late = subtask(epic.getId(), 14, 60);
+        manager.addSubtask(early);
+        manager.addSubtask(late);
+
+        assertEquals(LocalDateTime.of(2025, 1, 1, 9, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 15, 0), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(90), epic.getDuration());
+
+        late.setStatus(TaskStatus.DONE);
+        late.setStartTime(LocalDateTime.of(2025, 1, 1, 16, 0));
+        manager.updateSubtask(late);
+        assertEquals(LocalDateTime.of(2025, 1, 1, 17, 0), epic.getEndTime());
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+
+        manager.deleteSubtaskById(early.getId());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 16, 0), epic.getStartTime());
+        assertEquals(Duration.ofMinutes(60), epic.getDuration());
+        assertEquals(TaskStatus.DONE, epic.getStatus());
+
+        manager.deleteSubtaskById(late.getId());
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+        assertNull(epic.getDuration());
+        assertEquals(TaskStatus.NEW, epic.getStatus());
+    }
+
+    private static Subtask subtask(int epicId, int hour, int minutes) {
+        Subtask s = new Subtask("S", "D", TaskStatus.NEW, epicId);
+        s.setStartTime(LocalDateTime.of(2025, 1, 1, hour, 0));
+        s.setDuration(Duration.ofMinutes(minutes));
+        return s;
+    }
 }
@@ -1,6 +1,10 @@
 package ru.java.java_kanban.model;
 
 import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class SubtaskTest {
@@ -20,4 +24,19 @@ public class SubtaskTest {
 
         assertEquals(s1, s2);
     }
+
+    @Test
+    void copy_keepsSchedule() {
+        Subtask sub = new Subtask("S", "D", TaskStatus.IN_PROGRESS, 3);
+        sub.setId(7);
+        sub.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        sub.setDuration(Duration.ofMinutes(30));
+
+        Subtask copy = (Subtask) sub.copy();
+
+        assertEquals(sub.getStartTime(), copy.getStartTime());
+        assertEquals(sub.getDuration(), copy.getDuration());
+        assertEquals(3, copy.getEpicId());
+        assertEquals(TaskStatus.IN_PROGRESS, copy.getStatus());
+    }
 }
@@ -0,0 +1,166 @@
+package ru.java.java_kanban.task;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import ru.java.java_kanban.manager.history.InMemoryHistoryManager;
+import ru.java.java_kanban.manager.task.ConcurrentTaskManager;
+import ru.java.java_kanban.manager.task.StripedLock;
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return new ConcurrentTaskManager(new InMemoryHistoryManager());
+    }
+
+    // все задачи стартуют одновременно по защёлке
+    private <R> List<R> runConcurrently(int count, Callable<R> action) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<R>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return action.call();
+                }));
+            }
+            start.countDown();
+            List<R> results = new ArrayList<>();
+            for (Future<R> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Nested
+    class Concurrency {
+
+        @Test
+        public void parallelAdds_getUniqueIds() throws Exception {
+            List<Task> added = runConcurrently(2000, () -> manager.addTask(new Task("T", "D", TaskStatus.NEW)));
+
+            Set<Integer> ids = new HashSet<>();
+            added.forEach(t -> ids.add(t.getId()));
+            assertEquals(2000, ids.size());
+            assertEquals(2000, manager.getAllTasks().size());
+        }
+
+        @Test
+        public void sameSlot_fromManyThreads_acceptedOnce() throws Exception {
+            List<Boolean> results = runConcurrently(THREADS * 4, () -> {
+                try {
+                    manager.addTask(timedTask(1, 10, 0, 60));
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            });
+
+            assertEquals(1, results.stream().filter(ok -> ok).count());
+            assertEquals(1, manager.prioritizedTasks().size());
+        }
+
+        @Test
+        public void parallelSubtaskEdits_keepEpicConsistent() throws Exception {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            List<Subtask> added = runConcurrently(1000, () ->
+                    manager.addSubtask(new Subtask("S", "D", TaskStatus.NEW, epic.getId())));
+            AtomicInteger next = new AtomicInteger();
+            runConcurrently(500, () -> {
+                manager.deleteSubtaskById(added.get(2 * next.getAndIncrement()).getId());
+                return null;
+            });
+
+            int remaining = manager.getAllSubtasks().size();
+            assertEquals(500, remaining);
+            assertEquals(remaining, manager.getEpicById(epic.getId()).getSubtaskIds().size());
+            assertEquals(remaining, manager.getSubtasksOfEpic(epic.getId()).size());
+            assertEquals(TaskStatus.NEW, manager.getEpicById(epic.getId()).getStatus());
+        }
+
+        @Test
+        public void readers_getEpicSnapshots_whileSubtasksChange() throws Exception {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            Epic before = manager.getEpicById(epic.getId());
+            AtomicInteger consistent = new AtomicInteger();
+            runConcurrently(1000, () -> {
+                Subtask sub = manager.addSubtask(new Subtask("S", "D", TaskStatus.DONE, epic.getId()));
+                Epic seen = manager.getEpicById(epic.getId());
+                // снимок не меняется после выдачи и содержит только что добавленный сабтаск
+                if (seen.getSubtaskIds().contains(sub.getId())) {
+                    consistent.incrementAndGet();
+                }
+                return null;
+            });
+
+            assertEquals(1000, consistent.get());
+            assertTrue(before.getSubtaskIds().isEmpty());
+            assertEquals(TaskStatus.NEW, before.getStatus());
+            assertNotSame(manager.getEpicById(epic.getId()), manager.getEpicById(epic.getId()));
+        }
+
+        @Test
+        public void epicsAddedDuringDeleteAll_stayIndexed() throws Exception {
+            AtomicInteger calls = new AtomicInteger();
+            runConcurrently(5000, () -> {
+                if (calls.incrementAndGet() % 20 == 0) {
+                    manager.deleteAllEpics();
+                } else {
+                    manager.addEpic(new Epic("Release", "D"));
+                }
+                return null;
+            });
+
+            // эпик, вставленный посреди очистки, не должен пропасть из таблицы, оставшись в индексах
+            List<Epic> epics = manager.getAllEpics();
+            assertEquals(epics.size(), manager.findByStatus(TaskType.EPIC, TaskStatus.NEW).size());
+            assertEquals(epics.size(), manager.search("release", Integer.MAX_VALUE).size());
+        }
+
+        @Test
+        public void subtasksOfDifferentEpics_useTheirOwnStripes() throws Exception {
+            List<Epic> epics = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                epics.add(manager.addEpic(new Epic("E" + i, "D")));
+            }
+            AtomicInteger next = new AtomicInteger();
+            runConcurrently(THREADS * 100, () -> {
+                Epic epic = epics.get(next.getAndIncrement() % THREADS);
+                return manager.addSubtask(new Subtask("S", "D", TaskStatus.DONE, epic.getId()));
+            });
+
+            for (Epic epic : epics) {
+                assertEquals(100, manager.getSubtasksOfEpic(epic.getId()).size());
+                assertEquals(TaskStatus.DONE, manager.getEpicById(epic.getId()).getStatus());
+            }
+            long acquisitions = manager.getLockStats().stream()
+                    .mapToLong(StripedLock.StripeStats::acquisitions)
+                    .sum();
+            assertTrue(acquisitions >= THREADS * 100);
+        }
+    }
+}
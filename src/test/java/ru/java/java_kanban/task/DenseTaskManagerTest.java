@@ -0,0 +1,95 @@
+package ru.java.java_kanban.task;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import ru.java.java_kanban.manager.history.InMemoryHistoryManager;
+import ru.java.java_kanban.manager.task.DenseTaskManager;
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DenseTaskManagerTest extends TaskManagerTest<DenseTaskManager> {
+    @Override
+    protected DenseTaskManager createManager() {
+        return new DenseTaskManager(new InMemoryHistoryManager());
+    }
+
+    @Nested
+    class DenseStorage {
+
+        @Test
+        public void getAllTasks_keepsIdOrder_afterDeletes() {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                Task task = manager.addTask(new Task("T" + i, "D", TaskStatus.NEW));
+                if (i % 3 == 0) {
+                    manager.deleteTaskById(task.getId());
+                } else {
+                    expected.add(task.getId());
+                }
+            }
+
+            List<Integer> ids = manager.getAllTasks().stream().map(Task::getId).toList();
+            assertEquals(expected, ids);
+        }
+
+        @Test
+        public void getAllSubtasks_idOrder_acrossEpics() {
+            Epic first = manager.addEpic(new Epic("E1", "D"));
+            Epic second = manager.addEpic(new Epic("E2", "D"));
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Epic epic = i % 2 == 0 ? first : second;
+                expected.add(manager.addSubtask(new Subtask("S" + i, "D", TaskStatus.NEW, epic.getId())).getId());
+            }
+
+            List<Integer> ids = manager.getAllSubtasks().stream().map(Task::getId).toList();
+            assertEquals(expected, ids);
+        }
+
+        @Test
+        public void interleavedTypes_shareOneTable_withoutHoles() {
+            for (int i = 0; i < 1000; i++) {
+                Epic epic = manager.addEpic(new Epic("E" + i, "D"));
+                manager.addSubtask(new Subtask("S" + i, "D", TaskStatus.NEW, epic.getId()));
+                manager.addTask(new Task("T" + i, "D", TaskStatus.NEW));
+            }
+
+            // 3000 id подряд: три чанка по 1024 на все типы, не по три на каждый
+            assertEquals(3 * 1024 - 3000, manager.getFreeSlots());
+            assertEquals(1000, manager.getAllTasks().size());
+            assertEquals(1000, manager.getAllEpics().size());
+            assertEquals(1000, manager.getAllSubtasks().size());
+            assertNull(manager.getTaskById(1));
+            assertNotNull(manager.getEpicById(1));
+
+            manager.deleteAllTasks();
+            assertTrue(manager.getAllTasks().isEmpty());
+            assertEquals(1000, manager.getAllEpics().size());
+            assertEquals(1000, manager.getAllSubtasks().size());
+        }
+
+        @Test
+        public void deleteAll_releasesChunks() {
+            for (int i = 0; i < 5000; i++) {
+                manager.addTask(new Task("T" + i, "D", TaskStatus.NEW));
+            }
+            assertTrue(manager.getFreeSlots() < 1024);
+
+            for (Task task : manager.getAllTasks()) {
+                manager.deleteTaskById(task.getId());
+            }
+            manager.compact();
+
+            assertEquals(0, manager.getFreeSlots());
+            assertTrue(manager.getAllTasks().isEmpty());
+            assertNull(manager.getTaskById(1));
+        }
+    }
+}
@@ -3,14 +3,41 @@ package ru.java.java_kanban.task;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import ru.java.java_kanban.exceptions.ManagerSaveException;
 import ru.java.java_kanban.manager.history.InMemoryHistoryManager;
+import ru.java.java_kanban.manager.storage.CompactionPolicy;
+import ru.java.java_kanban.manager.storage.CompactionStats;
+import ru.java.java_kanban.manager.storage.Durability;
+import ru.java.java_kanban.manager.storage.JournalCompactor;
+import ru.java.java_kanban.manager.storage.JournalFlusher;
+import ru.java.java_kanban.manager.storage.LoadStats;
+import ru.java.java_kanban.manager.storage.SnapshotFormat;
+import ru.java.java_kanban.manager.storage.StorageMode;
+import ru.java.java_kanban.manager.storage.StorageOptions;
+import ru.java.java_kanban.manager.storage.TaskJournal;
+import ru.java.java_kanban.manager.storage.WriterStats;
 import ru.java.java_kanban.manager.task.FileBackedTaskManager;
+import ru.java.java_kanban.manager.task.SearchStats;
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
 import ru.java.java_kanban.model.Task;
 import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.util.BinaryConverter;
+import ru.java.java_kanban.util.CsvConverter;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -68,10 +95,762 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
                     new FileBackedTaskManager(new InMemoryHistoryManager(), broken));
         }
 
+        @Test
+        public void load_reportsStartupStats() throws IOException {
+            manager.addTask(new Task("A", "D", TaskStatus.NEW));
+            Epic e = manager.addEpic(new Epic("E", "D"));
+            manager.addSubtask(new Subtask("S", "D", TaskStatus.NEW, e.getId()));
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+            LoadStats stats = reloaded.getLoadStats();
+            assertEquals(SnapshotFormat.CSV, stats.format());
+            assertEquals(3, stats.records());
+            assertEquals(Files.size(backingFile), stats.bytes());
+            assertTrue(stats.bytes() > 0);
+        }
+
+        @Test
+        public void addTasks_persistsWholeBatch() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            List<Task> batch = new ArrayList<>();
+            List<Subtask> subBatch = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                batch.add(new Task("T" + i, "D", TaskStatus.NEW));
+                subBatch.add(new Subtask("S" + i, "D", TaskStatus.DONE, epic.getId()));
+            }
+            manager.addTasks(batch);
+            manager.addSubtasks(subBatch);
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+            assertEquals(500, reloaded.getAllTasks().size());
+            assertEquals(500, reloaded.getSubtasksOfEpic(epic.getId()).size());
+            assertEquals(TaskStatus.DONE, reloaded.getEpicById(epic.getId()).getStatus());
+        }
+
+        @Test
+        public void commit_persistsWholeTransaction() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            Subtask sub = manager.addSubtask(new Subtask("S", "D", TaskStatus.NEW, epic.getId()));
+            Task gone = manager.addTask(new Task("Gone", "D", TaskStatus.NEW));
+            Subtask done = (Subtask) sub.copy();
+            done.setStatus(TaskStatus.DONE);
+
+            manager.begin()
+                    .updateSubtask(done)
+                    .addSubtask(new Subtask("S2", "D", TaskStatus.DONE, epic.getId()))
+                    .deleteTask(gone.getId())
+                    .commit();
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+            assertTrue(reloaded.getAllTasks().isEmpty());
+            assertEquals(2, reloaded.getSubtasksOfEpic(epic.getId()).size());
+            assertEquals(TaskStatus.DONE, reloaded.getEpicById(epic.getId()).getStatus());
+        }
+
+        @Test
+        public void load_rebuildsSearchIndex() {
+            Task t = manager.addTask(new Task("Отчёт за квартал", "таблицы", TaskStatus.NEW));
+            Epic e = manager.addEpic(new Epic("Квартальное планирование", "D"));
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+
+            assertEquals(List.of(t, e), reloaded.search("квартал", 10));
+            SearchStats stats = reloaded.getSearchStats();
+            assertEquals(2, stats.documents());
+            assertTrue(stats.terms() >= 5);
+            assertTrue(stats.estimatedBytes() > 0);
+        }
+
+        @Test
+        public void saveAndLoad_arbitraryText_survivesQuoting() {
+            Task t = manager.addTask(new Task("Купить, \"молоко\"", "строка 1\nстрока 2\r\n,", TaskStatus.NEW));
+            Task empty = manager.addTask(new Task("", null, TaskStatus.DONE));
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+            Task restored = reloaded.getTaskById(t.getId());
+            assertEquals(t.getName(), restored.getName());
+            assertEquals(t.getDescription(), restored.getDescription());
+            Task restoredEmpty = reloaded.getTaskById(empty.getId());
+            assertEquals("", restoredEmpty.getName());
+            assertNull(restoredEmpty.getDescription());
+        }
+
+        @Test
+        public void load_largeSnapshot_decodesChunksAndLinksEverySubtask() throws IOException {
+            StringBuilder csv = new StringBuilder("id,type,name,status,description,startTime,endTime,durationMinutes,epic\n");
+            csv.append("1,EPIC,E,NEW,D,,,,\n");
+            String description = "x".repeat(100);
+            int count = 20_000;
+            for (int id = 2; id < count + 2; id++) {
+                csv.append(id).append(",SUBTASK,S,DONE,").append(description).append(",,,,1\n");
+            }
+            Files.writeString(backingFile, csv);
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+            assertTrue(reloaded.getLoadStats().chunks() > 1);
+            assertEquals(count + 1, reloaded.getLoadStats().records());
+            Epic epic = reloaded.getEpicById(1);
+            assertEquals(count, epic.getSubtaskIds().size());
+            assertEquals(2, epic.getSubtaskIds().get(0));
+            assertEquals(TaskStatus.DONE, epic.getStatus());
+            assertEquals(count + 2, reloaded.addTask(new Task("A", "D", TaskStatus.NEW)).getId());
+        }
+
+        @Test
+        public void load_restoresHistoryLine_afterTaskBlock() throws IOException {
+            Files.writeString(backingFile, String.join("\n",
+                    "id,type,name,status,description,startTime,endTime,durationMinutes,epic",
+                    "1,TASK,A,NEW,D,,,,",
+                    "2,EPIC,E,NEW,D,,,,",
+                    "3,SUBTASK,S,DONE,D,,,,2",
+                    "",
+                    "3,1"));
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+            List<Task> history = reloaded.getHistory();
+            assertEquals(2, history.size());
+            assertEquals(3, history.get(0).getId());
+            assertEquals(1, history.get(1).getId());
+            assertEquals(TaskStatus.DONE, reloaded.getEpicById(2).getStatus());
+        }
+
+        @Test
+        public void load_legacySnapshot_withBareQuotes_keepsRecordsApart() throws IOException {
+            Files.writeString(backingFile, String.join("\n",
+                    "id,type,name,status,description,startTime,endTime,durationMinutes,epic",
+                    "1,TASK,Say \"hi,NEW,D,,,,",
+                    "2,EPIC,E,NEW,D,,,,",
+                    "3,SUBTASK,S,DONE,12\" wide,,,,2",
+                    "") + "\n");
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+            assertEquals("Say \"hi", reloaded.getTaskById(1).getName());
+            assertEquals("12\" wide", reloaded.getSubtaskById(3).getDescription());
+            assertEquals(TaskStatus.DONE, reloaded.getEpicById(2).getStatus());
+
+            // первое сохранение переписывает файл в текущем формате
+            reloaded.addTask(new Task("New", "D", TaskStatus.NEW));
+            assertEquals(CsvConverter.HEADER, Files.readAllLines(backingFile).get(0));
+            FileBackedTaskManager migrated = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+            assertEquals("Say \"hi", migrated.getTaskById(1).getName());
+            assertEquals(3, migrated.getAllTasks().size() + migrated.getAllSubtasks().size());
+        }
+
+        @Test
+        public void history_survivesRestart_withoutRewritingSnapshot() throws IOException {
+            Task a = manager.addTask(new Task("A", "D", TaskStatus.NEW));
+            Task b = manager.addTask(new Task("B", "D", TaskStatus.NEW));
+            Task c = manager.addTask(new Task("C", "D", TaskStatus.NEW));
+            byte[] snapshot = Files.readAllBytes(backingFile);
+
+            manager.getTaskById(a.getId());
+            manager.getTaskById(b.getId());
+            manager.getTaskById(c.getId());
+            manager.getTaskById(a.getId());
+            assertArrayEquals(snapshot, Files.readAllBytes(backingFile));
+            manager.deleteTaskById(b.getId());
+
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+            assertEquals(List.of(c.getId(), a.getId()), reloaded.getHistory().stream().map(Task::getId).toList());
+        }
+
+        @Test
+        public void deleteAll_writesHistoryRecords_onlyForViewedTasks() throws IOException {
+            for (int i = 0; i < 100; i++) {
+                manager.addTask(new Task("T" + i, "D", TaskStatus.NEW));
+            }
+            long journalSize = Files.exists(FileBackedTaskManager.historyPath(backingFile))
+                    ? Files.size(FileBackedTaskManager.historyPath(backingFile)) : 0;
+
+            manager.deleteAllTasks();
+
+            long after = Files.exists(FileBackedTaskManager.historyPath(backingFile))
+                    ? Files.size(FileBackedTaskManager.historyPath(backingFile)) : 0;
+            assertEquals(journalSize, after);
+        }
+
+        @Test
+        public void historyJournal_isCompacted_whenViewsPileUp() throws IOException {
+            Task a = manager.addTask(new Task("A", "D", TaskStatus.NEW));
+            Task b = manager.addTask(new Task("B", "D", TaskStatus.NEW));
+            for (int i = 0; i < 5000; i++) {
+                manager.getTaskById(i % 2 == 0 ? a.getId() : b.getId());
+            }
+
+            assertTrue(Files.size(FileBackedTaskManager.historyPath(backingFile)) < 2048);
+            FileBackedTaskManager reloaded = new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile);
+            assertEquals(List.of(a.getId(), b.getId()), reloaded.getHistory().stream().map(Task::getId).toList());
+        }
+
         @Test
         public void createOnEmptyFile_doesNotThrow() {
             assertDoesNotThrow(() ->
                     new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile));
         }
     }
+
+    @Nested
+    class JournalMode {
+
+        private FileBackedTaskManager journaled() {
+            return new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile, StorageMode.JOURNAL);
+        }
+
+        @Test
+        public void replay_emitsNoEvents() {
+            backingFile = tempDir.resolve("quiet.csv");
+            try (FileBackedTaskManager m = journaled()) {
+                Task t = m.addTask(new Task("T", "D", TaskStatus.NEW));
+                Epic e = m.addEpic(new Epic("E", "D"));
+                m.addSubtask(new Subtask("S", "D", TaskStatus.DONE, e.getId()));
+                m.deleteTaskById(t.getId());
+                m.deleteEpicById(e.getId());
+                m.deleteAllSubtasks();
+            }
+
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertTrue(reloaded.subscribe(0).poll(100).isEmpty());
+                reloaded.addTask(new Task("after", "D", TaskStatus.NEW));
+                assertEquals(1, reloaded.subscribe(0).poll(100).size());
+            }
+        }
+
+        @Test
+        public void mutations_appendToJournal_withoutRewritingSnapshot() throws IOException {
+            Path snapshot = tempDir.resolve("journaled.csv");
+            backingFile = snapshot;
+            try (FileBackedTaskManager m = journaled()) {
+                m.addTask(new Task("A", "D", TaskStatus.NEW));
+                m.addTask(new Task("B", "D", TaskStatus.NEW));
+            }
+
+            assertFalse(Files.exists(snapshot));
+            List<String> lines = Files.readAllLines(FileBackedTaskManager.journalPath(snapshot));
+            assertEquals(3, lines.size());
+            assertEquals(TaskJournal.HEADER, lines.get(0));
+        }
+
+        @Test
+        public void replay_recordWithNewlinesInFields_isOneRecord() {
+            backingFile = tempDir.resolve("quoted.csv");
+            Task t;
+            try (FileBackedTaskManager m = journaled()) {
+                t = m.addTask(new Task("a,b", "x\ny\n\"z\"", TaskStatus.NEW));
+                m.updateTask(t);
+            }
+
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(1, reloaded.getAllTasks().size());
+                assertEquals("x\ny\n\"z\"", reloaded.getTaskById(t.getId()).getDescription());
+            }
+        }
+
+        @Test
+        public void reload_replaysJournal_onTopOfSnapshot() {
+            backingFile = tempDir.resolve("replay.csv");
+            Task kept;
+            Subtask sub;
+            Epic epic;
+            try (FileBackedTaskManager m = journaled()) {
+                kept = m.addTask(new Task("Kept", "D", TaskStatus.NEW));
+                Task gone = m.addTask(new Task("Gone", "D", TaskStatus.NEW));
+                m.checkpoint();
+
+                epic = m.addEpic(new Epic("E", "D"));
+                sub = m.addSubtask(new Subtask("S", "D", TaskStatus.DONE, epic.getId()));
+                kept.setName("Kept v2");
+                m.updateTask(kept);
+                m.deleteTaskById(gone.getId());
+            }
+
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals("Kept v2", reloaded.getTaskById(kept.getId()).getName());
+                assertEquals(1, reloaded.getAllTasks().size());
+                assertEquals(TaskStatus.DONE, reloaded.getEpicById(epic.getId()).getStatus());
+                assertEquals(List.of(sub), reloaded.getSubtasksOfEpic(epic.getId()));
+
+                Task next = reloaded.addTask(new Task("Next", "D", TaskStatus.NEW));
+                assertTrue(next.getId() > sub.getId());
+            }
+        }
+
+        @Test
+        public void reload_replaysCascadeDelete_ofEpic() {
+            backingFile = tempDir.resolve("cascade.csv");
+            Epic epic;
+            try (FileBackedTaskManager m = journaled()) {
+                epic = m.addEpic(new Epic("E", "D"));
+                m.addSubtask(new Subtask("S1", "D", TaskStatus.NEW, epic.getId()));
+                m.addSubtask(new Subtask("S2", "D", TaskStatus.NEW, epic.getId()));
+                m.deleteEpicById(epic.getId());
+            }
+
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertTrue(reloaded.getAllEpics().isEmpty());
+                assertTrue(reloaded.getAllSubtasks().isEmpty());
+            }
+        }
+
+        @Test
+        public void checkpoint_truncatesJournal() throws IOException {
+            backingFile = tempDir.resolve("checkpoint.csv");
+            try (FileBackedTaskManager m = journaled()) {
+                m.addTask(new Task("A", "D", TaskStatus.NEW));
+                m.checkpoint();
+            }
+
+            assertEquals(List.of(TaskJournal.HEADER),
+                    Files.readAllLines(FileBackedTaskManager.journalPath(backingFile)));
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(1, reloaded.getAllTasks().size());
+            }
+        }
+
+        @Test
+        public void legacyJournal_withBareQuote_isReadByLine_andRewritten() throws IOException {
+            backingFile = tempDir.resolve("legacy.csv");
+            Path journalFile = FileBackedTaskManager.journalPath(backingFile);
+            Files.writeString(journalFile, "U,1,TASK,Say \"hi,NEW,D,,,,\nU,2,TASK,Two,NEW,D,,,,\nD,2\nU,3,TASK,Three,NEW,D,,,,\n");
+
+            try (FileBackedTaskManager m = journaled()) {
+                assertEquals(List.of("Say \"hi", "Three"), m.getAllTasks().stream().map(Task::getName).toList());
+                m.addTask(new Task("After", "D", TaskStatus.NEW));
+            }
+
+            assertEquals(TaskJournal.HEADER, Files.readAllLines(journalFile).get(0));
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(List.of("Say \"hi", "Three", "After"),
+                        reloaded.getAllTasks().stream().map(Task::getName).toList());
+            }
+        }
+
+        @Test
+        public void tornTail_isIgnored() throws IOException {
+            backingFile = tempDir.resolve("torn.csv");
+            try (FileBackedTaskManager m = journaled()) {
+                m.addTask(new Task("A", "D", TaskStatus.NEW));
+            }
+            Files.writeString(FileBackedTaskManager.journalPath(backingFile), "U,2,TASK,Half",
+                    StandardOpenOption.APPEND);
+
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(1, reloaded.getAllTasks().size());
+                reloaded.addTask(new Task("B", "D", TaskStatus.NEW));
+            }
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(2, reloaded.getAllTasks().size());
+            }
+        }
+    
+        @Test
+        public void commit_appendsOneFramedBatch() throws IOException {
+            backingFile = tempDir.resolve("batch.csv");
+            try (FileBackedTaskManager m = journaled()) {
+                Epic epic = m.addEpic(new Epic("E", "D"));
+                m.begin()
+                        .addSubtask(new Subtask("S1", "D", TaskStatus.NEW, epic.getId()))
+                        .addSubtask(new Subtask("S2", "D", TaskStatus.NEW, epic.getId()))
+                        .commit();
+            }
+
+            List<String> lines = Files.readAllLines(FileBackedTaskManager.journalPath(backingFile));
+            assertEquals(List.of("B", "E"), List.of(lines.get(2), lines.get(5)));
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(2, reloaded.getAllSubtasks().size());
+            }
+        }
+
+        @Test
+        public void tornBatch_isDiscardedWhole() throws IOException {
+            backingFile = tempDir.resolve("tornBatch.csv");
+            try (FileBackedTaskManager m = journaled()) {
+                m.addTask(new Task("A", "D", TaskStatus.NEW));
+            }
+            Files.writeString(FileBackedTaskManager.journalPath(backingFile),
+                    "B\nU,2,TASK,Whole,NEW,D,,,\nU,3,TASK,Half",
+                    StandardOpenOption.APPEND);
+
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(1, reloaded.getAllTasks().size());
+                reloaded.addTask(new Task("B", "D", TaskStatus.NEW));
+            }
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(2, reloaded.getAllTasks().size());
+            }
+        }
+
+        @Test
+        public void compactor_runsInBackground_whenRecordLimitReached() throws Exception {
+            backingFile = tempDir.resolve("compacted.csv");
+            StorageOptions options = StorageOptions.journal()
+                    .withCompaction(new CompactionPolicy(0, 5, null));
+            try (FileBackedTaskManager m =
+                         new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile, options)) {
+                for (int i = 0; i < 5; i++) {
+                    m.addTask(new Task("T" + i, "D", TaskStatus.NEW));
+                }
+                long deadline = System.currentTimeMillis() + 5_000;
+                while (m.getLastCompaction() == null && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                CompactionStats stats = m.getLastCompaction();
+                assertNotNull(stats);
+                assertTrue(stats.reclaimedRecords() >= 5);
+                assertTrue(stats.reclaimedBytes() > 0);
+
+                m.addTask(new Task("After", "D", TaskStatus.NEW));
+            }
+
+            assertTrue(Files.exists(backingFile));
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(6, reloaded.getAllTasks().size());
+            }
+        }
+
+        @Test
+        public void checkpoint_keepsRecordsAppendedAfterIt() {
+            backingFile = tempDir.resolve("tail.csv");
+            try (FileBackedTaskManager m = journaled()) {
+                m.addTask(new Task("A", "D", TaskStatus.NEW));
+                CompactionStats stats = m.checkpoint();
+                assertEquals(1, stats.reclaimedRecords());
+                m.addTask(new Task("B", "D", TaskStatus.NEW));
+            }
+
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(2, reloaded.getAllTasks().size());
+            }
+        }
+    
+        @Test
+        public void syncDurability_fsyncsEveryMutation() {
+            backingFile = tempDir.resolve("sync.csv");
+            StorageOptions options = StorageOptions.journal()
+                    .withDurability(Durability.SYNC, Duration.ZERO);
+            try (FileBackedTaskManager m =
+                         new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile, options)) {
+                m.addTask(new Task("A", "D", TaskStatus.NEW));
+                m.addTask(new Task("B", "D", TaskStatus.NEW));
+                assertEquals(2, m.getJournalSyncCount());
+            }
+        }
+
+        @Test
+        public void groupCommit_recoversAfterFailedFsync() {
+            AtomicBoolean failNext = new AtomicBoolean(true);
+            TaskJournal journal = new TaskJournal(tempDir.resolve("flaky.log")) {
+                @Override
+                public long force() {
+                    if (failNext.getAndSet(false)) {
+                        throw new ManagerSaveException("fsync failed");
+                    }
+                    return super.force();
+                }
+            };
+            try (journal; JournalFlusher flusher =
+                         JournalFlusher.start(journal, Durability.GROUP_COMMIT, Duration.ofMillis(5))) {
+                long first = journal.upsert(task(1));
+                assertThrows(ManagerSaveException.class, () -> flusher.await(first));
+
+                // следующий fsync прошёл - новые записи подтверждаются без ошибки
+                long second = journal.upsert(task(2));
+                flusher.await(second);
+                assertTrue(flusher.durableSequence() >= second);
+
+                flusher.close();
+                long late = journal.upsert(task(3));
+                flusher.await(late);
+                assertTrue(flusher.durableSequence() >= late);
+            }
+        }
+
+        @Test
+        public void compactorFailure_isReportedByNextCheckpointOnly() {
+            TaskJournal journal = new TaskJournal(tempDir.resolve("compact.log"));
+            JournalCompactor compactor = JournalCompactor.start(journal, CompactionPolicy.disabled(), () -> {
+                throw new ManagerSaveException("disk full");
+            });
+            try (journal) {
+                journal.upsert(task(1));
+                compactor.requestCompaction();
+                compactor.close();
+
+                assertNull(compactor.getLastRun());
+                ManagerSaveException e = assertThrows(ManagerSaveException.class, compactor::rethrowFailure);
+                assertTrue(e.getMessage().contains("disk full"));
+                assertDoesNotThrow(compactor::rethrowFailure);
+            }
+        }
+
+        private Task task(int id) {
+            Task task = new Task("T" + id, "D", TaskStatus.NEW);
+            task.setId(id);
+            return task;
+        }
+
+        @Test
+        public void groupCommit_isRejected_outsideJournalMode() {
+            for (StorageMode mode : List.of(StorageMode.SNAPSHOT, StorageMode.ASYNC_SNAPSHOT, StorageMode.SHARDED)) {
+                assertThrows(IllegalArgumentException.class, () -> StorageOptions.of(mode)
+                        .withDurability(Durability.GROUP_COMMIT, Duration.ofMillis(5)));
+            }
+        }
+
+        @Test
+        public void groupCommit_sharesFsyncBetweenConcurrentMutations() throws Exception {
+            backingFile = tempDir.resolve("group.csv");
+            StorageOptions options = StorageOptions.journal()
+                    .withDurability(Durability.GROUP_COMMIT, Duration.ofMillis(20));
+            int writers = 8;
+            int perWriter = 10;
+            try (FileBackedTaskManager m =
+                         new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile, options)) {
+                ExecutorService pool = Executors.newFixedThreadPool(writers);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int w = 0; w < writers; w++) {
+                    futures.add(pool.submit(() -> {
+                        for (int i = 0; i < perWriter; i++) {
+                            m.addTask(new Task("T", "D", TaskStatus.NEW));
+                        }
+                    }));
+                }
+                for (Future<?> f : futures) {
+                    f.get(30, TimeUnit.SECONDS);
+                }
+                pool.shutdown();
+
+                assertTrue(m.getJournalSyncCount() < writers * perWriter);
+            }
+
+            try (FileBackedTaskManager reloaded = journaled()) {
+                assertEquals(writers * perWriter, reloaded.getAllTasks().size());
+            }
+        }
+    }
+
+    @Nested
+    class ShardedMode {
+
+        private FileBackedTaskManager sharded() {
+            return new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile,
+                    StorageOptions.sharded().withSegmentSize(10));
+        }
+
+        @Test
+        public void mutation_rewritesOnlyItsSegment() {
+            Task first;
+            try (FileBackedTaskManager m = sharded()) {
+                first = m.addTask(new Task("T0", "D", TaskStatus.NEW));
+                for (int i = 1; i < 25; i++) {
+                    m.addTask(new Task("T" + i, "D", TaskStatus.NEW));
+                }
+                Map<Integer, Integer> before = m.getSegmentVersions();
+                assertEquals(3, before.size());
+
+                first.setStatus(TaskStatus.DONE);
+                m.updateTask(first);
+
+                Map<Integer, Integer> after = m.getSegmentVersions();
+                assertEquals(before.get(0) + 1, after.get(0));
+                assertEquals(before.get(1), after.get(1));
+                assertEquals(before.get(2), after.get(2));
+            }
+        }
+
+        @Test
+        public void failedManifestWrite_keepsSegmentDirty_forNextMutation() throws IOException {
+            Path blocker = FileBackedTaskManager.segmentsPath(backingFile).resolve("MANIFEST.tmp");
+            Task first;
+            try (FileBackedTaskManager m = sharded()) {
+                first = m.addTask(new Task("T1", "D", TaskStatus.NEW));
+                Task other = null;
+                for (int i = 2; i <= 10; i++) {
+                    other = m.addTask(new Task("T" + i, "D", TaskStatus.NEW));
+                }
+                assertNotEquals(first.getId() / 10, other.getId() / 10);
+                Map<Integer, Integer> before = m.getSegmentVersions();
+
+                // каталог на месте временного манифеста: запись манифеста падает
+                Files.createDirectory(blocker);
+                Task done = first.copy();
+                done.setStatus(TaskStatus.DONE);
+                assertThrows(ManagerSaveException.class, () -> m.updateTask(done));
+                assertEquals(before, m.getSegmentVersions());
+
+                // следующая мутация трогает другой сегмент, но дописывает и несохранённый
+                Files.delete(blocker);
+                Task renamed = other.copy();
+                renamed.setName("renamed");
+                m.updateTask(renamed);
+            }
+
+            try (FileBackedTaskManager reloaded = sharded()) {
+                assertEquals(TaskStatus.DONE, reloaded.getTaskById(first.getId()).getStatus());
+            }
+        }
+
+        @Test
+        public void reload_readsAllSegments_andLinksSubtasksAcrossThem() {
+            Epic epic;
+            try (FileBackedTaskManager m = sharded()) {
+                epic = m.addEpic(new Epic("E", "D"));
+                for (int i = 0; i < 15; i++) {
+                    m.addSubtask(new Subtask("S" + i, "D", TaskStatus.DONE, epic.getId()));
+                }
+                m.deleteSubtaskById(5);
+            }
+
+            try (FileBackedTaskManager reloaded = sharded()) {
+                assertEquals(14, reloaded.getAllSubtasks().size());
+                assertEquals(14, reloaded.getEpicById(epic.getId()).getSubtaskIds().size());
+                assertEquals(TaskStatus.DONE, reloaded.getEpicById(epic.getId()).getStatus());
+                assertEquals(2, reloaded.getLoadStats().chunks());
+            }
+        }
+
+        @Test
+        public void deleteEpic_rewritesSegmentsOfItsSubtasks() {
+            Epic epic;
+            try (FileBackedTaskManager m = sharded()) {
+                epic = m.addEpic(new Epic("E", "D"));
+                List<Subtask> batch = new ArrayList<>();
+                for (int i = 0; i < 25; i++) {
+                    batch.add(new Subtask("S" + i, "D", TaskStatus.NEW, epic.getId()));
+                }
+                m.addSubtasks(batch);
+                m.deleteEpicById(epic.getId());
+            }
+
+            try (FileBackedTaskManager reloaded = sharded()) {
+                assertTrue(reloaded.getAllEpics().isEmpty());
+                assertTrue(reloaded.getAllSubtasks().isEmpty());
+            }
+        }
+
+        @Test
+        public void damagedSegment_fallsBackToPreviousVersion_andTornWriteIsDiscarded() throws IOException {
+            Task t;
+            try (FileBackedTaskManager m = sharded()) {
+                t = m.addTask(new Task("v1", "D", TaskStatus.NEW));
+                t.setName("v2");
+                m.updateTask(t);
+            }
+            Path dir = FileBackedTaskManager.segmentsPath(backingFile);
+            Files.writeString(dir.resolve("0.2.seg"), "garbage");
+            Files.writeString(dir.resolve("0.3.seg"), "half-written");
+
+            try (FileBackedTaskManager reloaded = sharded()) {
+                assertEquals("v1", reloaded.getTaskById(t.getId()).getName());
+                assertFalse(Files.exists(dir.resolve("0.3.seg")));
+            }
+        }
+    }
+
+    @Nested
+    class AsyncSnapshotMode {
+
+        private FileBackedTaskManager async() {
+            return new FileBackedTaskManager(new InMemoryHistoryManager(), backingFile, StorageMode.ASYNC_SNAPSHOT);
+        }
+
+        @Test
+        public void burstOfUpdates_coalescesIntoFewWrites() {
+            backingFile = tempDir.resolve("async.csv");
+            Task t;
+            try (FileBackedTaskManager m = async()) {
+                t = m.addTask(new Task("v0", "D", TaskStatus.NEW));
+                for (int i = 1; i <= 500; i++) {
+                    t.setName("v" + i);
+                    m.updateTask(t);
+                }
+                m.checkpoint();
+
+                WriterStats stats = m.getWriterStats();
+                assertEquals(0, stats.queueDepth());
+                assertTrue(stats.flushes() < 500);
+            }
+
+            try (FileBackedTaskManager reloaded = async()) {
+                assertEquals("v500", reloaded.getTaskById(t.getId()).getName());
+            }
+        }
+
+        @Test
+        public void close_flushesLatestState() {
+            backingFile = tempDir.resolve("async-close.csv");
+            try (FileBackedTaskManager m = async()) {
+                m.addTask(new Task("A", "D", TaskStatus.NEW));
+                m.addTask(new Task("B", "D", TaskStatus.NEW));
+            }
+
+            try (FileBackedTaskManager reloaded = async()) {
+                assertEquals(2, reloaded.getAllTasks().size());
+            }
+        }
+    }
+
+    @Nested
+    class BinaryFormat {
+
+        private FileBackedTaskManager binary(Path path) {
+            return new FileBackedTaskManager(new InMemoryHistoryManager(), path,
+                    StorageOptions.snapshot().withFormat(SnapshotFormat.BINARY));
+        }
+
+        @Test
+        public void roundTrip_preservesAllFields() throws IOException {
+            Path path = tempDir.resolve("tasks.bin");
+            FileBackedTaskManager m = binary(path);
+            Task t = timedTask(1, 9, 0, 30);
+            t.setStartTime(t.getStartTime().withSecond(15));
+            t.setDescription("Описание, с запятой");
+            m.addTask(t);
+            Epic e = m.addEpic(new Epic("E", "D"));
+            Subtask s = m.addSubtask(timedSub(e.getId(), 2, 10, 0, 45));
+            s.setStatus(TaskStatus.IN_PROGRESS);
+            m.updateSubtask(s);
+
+            assertEquals('K', Files.readAllBytes(path)[0]);
+
+            FileBackedTaskManager reloaded = binary(path);
+            Task rt = reloaded.getTaskById(t.getId());
+            assertEquals(t.getStartTime(), rt.getStartTime());
+            assertEquals(t.getDuration(), rt.getDuration());
+            assertEquals("Описание, с запятой", rt.getDescription());
+
+            Subtask rs = reloaded.getSubtaskById(s.getId());
+            assertEquals(e.getId(), rs.getEpicId());
+            assertEquals(TaskStatus.IN_PROGRESS, rs.getStatus());
+            assertEquals(s.getStartTime(), rs.getStartTime());
+            assertEquals(TaskStatus.IN_PROGRESS, reloaded.getEpicById(e.getId()).getStatus());
+            assertEquals(2, reloaded.prioritizedTasks().size());
+        }
+
+        @Test
+        public void migrateFromCsv_producesEquivalentBoard() throws IOException {
+            Epic e = manager.addEpic(new Epic("E", "D"));
+            manager.addSubtask(timedSub(e.getId(), 3, 8, 0, 20));
+            manager.addTask(new Task("T", "D", TaskStatus.DONE));
+
+            Path binaryFile = tempDir.resolve("migrated.bin");
+            BinaryConverter.migrateFromCsv(backingFile, binaryFile);
+
+            FileBackedTaskManager migrated = binary(binaryFile);
+            assertEquals(manager.getAllTasks().size(), migrated.getAllTasks().size());
+            assertEquals(manager.getAllSubtasks().size(), migrated.getAllSubtasks().size());
+            assertEquals(1, migrated.getSubtasksOfEpic(e.getId()).size());
+        }
+
+        @Test
+        public void binaryMode_readsLegacyCsv_andRewritesAsBinary() throws IOException {
+            Task t = manager.addTask(new Task("Legacy", "D", TaskStatus.NEW));
+
+            FileBackedTaskManager m = binary(backingFile);
+            assertEquals("Legacy", m.getTaskById(t.getId()).getName());
+            m.addTask(new Task("New", "D", TaskStatus.NEW));
+
+            assertEquals('K', Files.readAllBytes(backingFile)[0]);
+            assertEquals(2, binary(backingFile).getAllTasks().size());
+        }
+    }
 }
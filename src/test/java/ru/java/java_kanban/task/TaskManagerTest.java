@@ -3,12 +3,19 @@ package ru.java.java_kanban.task;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import ru.java.java_kanban.http.BaseHttpHandler;
+import ru.java.java_kanban.manager.event.EventSubscription;
+import ru.java.java_kanban.manager.event.TaskEvent;
 import ru.java.java_kanban.manager.task.TaskManager;
+import ru.java.java_kanban.manager.task.Transaction;
 import ru.java.java_kanban.model.*;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -153,6 +160,32 @@ public abstract class TaskManagerTest<T extends TaskManager> {
             assertTrue(manager.getHistory().isEmpty());
         }
 
+        @Test
+        public void deleteEpicById_withManySubtasks_clearsEveryIndex() {
+            Epic e = manager.addEpic(new Epic("E", "D"));
+            Epic other = manager.addEpic(new Epic("Other", "D"));
+            Subtask kept = manager.addSubtask(new Subtask("kept", "D", TaskStatus.DONE, other.getId()));
+            List<Subtask> batch = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                Subtask s = new Subtask("sub " + i, "D", TaskStatus.IN_PROGRESS, e.getId());
+                s.setStartTime(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(10L * i));
+                s.setDuration(Duration.ofMinutes(5));
+                batch.add(s);
+            }
+            List<Subtask> added = manager.addSubtasks(batch);
+            manager.getSubtaskById(added.get(42).getId());
+            manager.getSubtaskById(kept.getId());
+
+            manager.deleteEpicById(e.getId());
+
+            assertEquals(List.of(kept), manager.getAllSubtasks());
+            assertTrue(manager.prioritizedTasks().isEmpty());
+            assertTrue(manager.findByStatus(TaskType.SUBTASK, TaskStatus.IN_PROGRESS).isEmpty());
+            assertTrue(manager.search("sub", 10).isEmpty());
+            assertEquals(List.of(kept), manager.getHistory());
+            assertEquals(List.of(kept), manager.getSubtasksOfEpic(other.getId()));
+        }
+
         @Test
         public void deleteAllEpics_clearsEpics_andSubtasks() {
             Epic e1 = manager.addEpic(new Epic("E1", "D"));
@@ -212,6 +245,21 @@ public abstract class TaskManagerTest<T extends TaskManager> {
             assertEquals(TaskStatus.DONE, manager.getSubtaskById(s1.getId()).getStatus());
         }
 
+        // вклад обновлённого сабтаска идёт эпику, в списке которого он числится, у всех менеджеров одинаково
+        @Test
+        public void updateSubtask_withOtherEpicId_recalculatesListedEpic() {
+            Epic listed = manager.addEpic(new Epic("E1", "D"));
+            Epic other = manager.addEpic(new Epic("E2", "D"));
+            Subtask s = manager.addSubtask(new Subtask("S1", "D", TaskStatus.NEW, listed.getId()));
+
+            Subtask moved = new Subtask("S1", "D", TaskStatus.DONE, other.getId());
+            moved.setId(s.getId());
+            manager.updateSubtask(moved);
+
+            assertEquals(TaskStatus.DONE, manager.getEpicById(listed.getId()).getStatus());
+            assertEquals(TaskStatus.NEW, manager.getEpicById(other.getId()).getStatus());
+        }
+
         @Test
         public void deleteSubtaskById_removesSubtask_andUpdatesEpic() {
             Epic e = manager.addEpic(new Epic("E", "D"));
@@ -270,6 +318,430 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         }
     }
 
+    /* ===================== STATUS INDEX ===================== */
+    @Nested
+    class StatusQueries {
+
+        @Test
+        public void findByStatus_followsUpdatesAndDeletes() {
+            Task t1 = manager.addTask(new Task("A", "D", TaskStatus.NEW));
+            Task t2 = manager.addTask(new Task("B", "D", TaskStatus.IN_PROGRESS));
+            Task t3 = manager.addTask(new Task("C", "D", TaskStatus.NEW));
+
+            assertEquals(List.of(t1, t3), manager.findByStatus(TaskType.TASK, TaskStatus.NEW));
+
+            Task moved = new Task("A", "D", TaskStatus.DONE);
+            moved.setId(t1.getId());
+            manager.updateTask(moved);
+            manager.deleteTaskById(t2.getId());
+
+            assertEquals(List.of(t3), manager.findByStatus(TaskType.TASK, TaskStatus.NEW));
+            assertEquals(List.of(moved), manager.findByStatus(TaskType.TASK, TaskStatus.DONE));
+            assertTrue(manager.findByStatus(TaskType.TASK, TaskStatus.IN_PROGRESS).isEmpty());
+        }
+
+        @Test
+        public void findByStatus_epicMovesWithSubtasks() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            Subtask s1 = manager.addSubtask(new Subtask("S1", "D", TaskStatus.NEW, epic.getId()));
+            Subtask s2 = manager.addSubtask(new Subtask("S2", "D", TaskStatus.IN_PROGRESS, epic.getId()));
+
+            assertEquals(List.of(s2), manager.findByStatus(TaskType.SUBTASK, TaskStatus.IN_PROGRESS));
+            assertEquals(List.of(epic), manager.findByStatus(TaskType.EPIC, TaskStatus.IN_PROGRESS));
+
+            manager.deleteSubtaskById(s2.getId());
+
+            assertEquals(List.of(s1), manager.findByStatus(TaskType.SUBTASK, TaskStatus.NEW));
+            assertEquals(List.of(epic), manager.findByStatus(TaskType.EPIC, TaskStatus.NEW));
+
+            manager.deleteAllEpics();
+
+            assertTrue(manager.findByStatus(TaskType.EPIC, TaskStatus.NEW).isEmpty());
+            assertTrue(manager.findByStatus(TaskType.SUBTASK, TaskStatus.NEW).isEmpty());
+        }
+    }
+
+    /* ===================== BULK ===================== */
+    @Nested
+    class Bulk {
+
+        @Test
+        public void addTasks_assignsIds_inBatchOrder() {
+            List<Task> added = manager.addTasks(List.of(
+                    timedTask(1, 12, 0, 30),
+                    timedTask(1, 9, 0, 30),
+                    new Task("untimed", "D", TaskStatus.NEW)));
+
+            assertEquals(3, manager.getAllTasks().size());
+            assertTrue(added.get(0).getId() < added.get(1).getId());
+            assertTrue(added.get(1).getId() < added.get(2).getId());
+            assertEquals(List.of(added.get(1), added.get(0)), new ArrayList<>(manager.prioritizedTasks()));
+        }
+
+        @Test
+        public void addTasks_conflictInsideBatch_addsNothing() {
+            assertThrows(IllegalArgumentException.class, () -> manager.addTasks(List.of(
+                    timedTask(2, 10, 0, 60),
+                    timedTask(2, 8, 0, 30),
+                    timedTask(2, 10, 30, 15))));
+
+            assertTrue(manager.getAllTasks().isEmpty());
+            assertTrue(manager.prioritizedTasks().isEmpty());
+        }
+
+        @Test
+        public void addTasks_conflictWithExisting_addsNothing() {
+            manager.addTask(timedTask(3, 10, 0, 60));
+
+            assertThrows(IllegalArgumentException.class, () -> manager.addTasks(List.of(
+                    timedTask(3, 8, 0, 30),
+                    timedTask(3, 10, 59, 5))));
+            assertEquals(1, manager.getAllTasks().size());
+        }
+
+        @Test
+        public void addSubtasks_recalculatesEachEpic() {
+            Epic e1 = manager.addEpic(new Epic("E1", "D"));
+            Epic e2 = manager.addEpic(new Epic("E2", "D"));
+            Subtask a = timedSub(e1.getId(), 4, 9, 0, 30);
+            Subtask b = timedSub(e1.getId(), 4, 11, 0, 30);
+            b.setStatus(TaskStatus.DONE);
+            Subtask c = new Subtask("C", "D", TaskStatus.DONE, e2.getId());
+
+            List<Subtask> added = manager.addSubtasks(List.of(a, b, c));
+
+            assertEquals(3, added.size());
+            assertEquals(List.of(a, b), manager.getSubtasksOfEpic(e1.getId()));
+            Epic epic1 = manager.getEpicById(e1.getId());
+            assertEquals(TaskStatus.IN_PROGRESS, epic1.getStatus());
+            assertEquals(a.getStartTime(), epic1.getStartTime());
+            assertEquals(b.getEndTime(), epic1.getEndTime());
+            assertEquals(TaskStatus.DONE, manager.getEpicById(e2.getId()).getStatus());
+        }
+
+        @Test
+        public void addSubtasks_unknownEpic_addsNothing() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+
+            assertThrows(NoSuchElementException.class, () -> manager.addSubtasks(List.of(
+                    new Subtask("ok", "D", TaskStatus.NEW, epic.getId()),
+                    new Subtask("lost", "D", TaskStatus.NEW, 999))));
+            assertTrue(manager.getAllSubtasks().isEmpty());
+            assertTrue(manager.getSubtasksOfEpic(epic.getId()).isEmpty());
+        }
+    }
+
+    /* ===================== TRANSACTIONS ===================== */
+    @Nested
+    class Transactions {
+
+        private Task moved(Task task, int day, int hour) {
+            Task copy = task.copy();
+            copy.setStartTime(LocalDateTime.of(2025, 1, day, hour, 0));
+            return copy;
+        }
+
+        @Test
+        public void commit_swapsTwoTasks_thatOverlapOnlyMidway() {
+            Task a = manager.addTask(timedTask(5, 9, 0, 60));
+            Task b = manager.addTask(timedTask(5, 11, 0, 60));
+
+            manager.begin()
+                    .updateTask(moved(a, 5, 11))
+                    .updateTask(moved(b, 5, 9))
+                    .commit();
+
+            assertEquals(LocalDateTime.of(2025, 1, 5, 11, 0), manager.getTaskById(a.getId()).getStartTime());
+            assertEquals(List.of(b.getId(), a.getId()),
+                    manager.prioritizedTasks().stream().map(Task::getId).toList());
+        }
+
+        @Test
+        public void commit_conflictInFinalState_changesNothing() {
+            Task a = manager.addTask(timedTask(6, 9, 0, 60));
+            Task b = manager.addTask(timedTask(6, 11, 0, 60));
+
+            Transaction tx = manager.begin()
+                    .addTask(new Task("new", "D", TaskStatus.NEW))
+                    .deleteTask(b.getId())
+                    .updateTask(moved(a, 6, 13))
+                    .addTask(timedTask(6, 13, 30, 15));
+
+            assertThrows(IllegalArgumentException.class, tx::commit);
+            assertEquals(List.of(a, b), manager.getAllTasks());
+            assertEquals(LocalDateTime.of(2025, 1, 6, 9, 0), manager.getTaskById(a.getId()).getStartTime());
+            assertEquals(List.of(a, b), new ArrayList<>(manager.prioritizedTasks()));
+        }
+
+        @Test
+        public void commit_freesSlotsOfDeletedTasks() {
+            Task a = manager.addTask(timedTask(7, 9, 0, 60));
+
+            manager.begin()
+                    .deleteTask(a.getId())
+                    .addTask(timedTask(7, 9, 30, 60))
+                    .commit();
+
+            assertEquals(1, manager.getAllTasks().size());
+            assertNull(manager.getTaskById(a.getId()));
+        }
+
+        @Test
+        public void commit_missingTarget_changesNothing() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            Subtask sub = manager.addSubtask(new Subtask("S", "D", TaskStatus.NEW, epic.getId()));
+
+            Transaction tx = manager.begin()
+                    .addSubtask(new Subtask("S2", "D", TaskStatus.DONE, epic.getId()))
+                    .deleteEpic(epic.getId())
+                    .deleteSubtask(sub.getId());
+
+            assertThrows(NoSuchElementException.class, tx::commit);
+            assertEquals(List.of(sub), manager.getAllSubtasks());
+            assertEquals(TaskStatus.NEW, manager.getEpicById(epic.getId()).getStatus());
+        }
+
+        // так сабтаск без epicId приходит из JSON: конструктор требует int
+        private Subtask subtaskWithoutEpic() {
+            return BaseHttpHandler.gson().fromJson("{\"name\":\"S\",\"description\":\"D\",\"status\":\"NEW\"}", Subtask.class);
+        }
+
+        @Test
+        public void commit_subtaskWithoutEpic_isNotFound() {
+            Task task = manager.addTask(new Task("T", "D", TaskStatus.NEW));
+
+            Transaction tx = manager.begin()
+                    .deleteTask(task.getId())
+                    .addSubtask(subtaskWithoutEpic());
+
+            assertThrows(NoSuchElementException.class, tx::commit);
+            assertEquals(List.of(task), manager.getAllTasks());
+            assertTrue(manager.getAllSubtasks().isEmpty());
+        }
+
+        @Test
+        public void commit_updatesEpicWithItsSubtasks() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            Subtask a = manager.addSubtask(timedSub(epic.getId(), 8, 9, 0, 30));
+            Subtask b = manager.addSubtask(timedSub(epic.getId(), 8, 10, 0, 30));
+
+            Epic renamed = new Epic("Release", "D");
+            renamed.setId(epic.getId());
+            Subtask doneA = (Subtask) a.copy();
+            doneA.setStatus(TaskStatus.DONE);
+            Subtask doneB = (Subtask) b.copy();
+            doneB.setStatus(TaskStatus.DONE);
+            Subtask c = new Subtask("C", "D", TaskStatus.DONE, epic.getId());
+
+            manager.begin()
+                    .updateEpic(renamed)
+                    .updateSubtask(doneA)
+                    .updateSubtask(doneB)
+                    .addSubtask(c)
+                    .commit();
+
+            Epic result = manager.getEpicById(epic.getId());
+            assertEquals("Release", result.getName());
+            assertEquals(TaskStatus.DONE, result.getStatus());
+            assertEquals(List.of(doneA, doneB, c), manager.getSubtasksOfEpic(epic.getId()));
+            assertEquals(List.of(result), manager.findByStatus(TaskType.EPIC, TaskStatus.DONE));
+        }
+
+        @Test
+        public void commit_epicWithScheduledSubtasks_isNotCheckedAgainstThem() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            manager.addSubtask(timedSub(epic.getId(), 10, 9, 0, 60));
+
+            // эпик, прочитанный клиентом, несёт время своих сабтасков
+            Epic renamed = (Epic) manager.getEpicById(epic.getId()).copy();
+            renamed.setName("Renamed");
+            assertNotNull(renamed.getStartTime());
+
+            manager.begin().updateEpic(renamed).commit();
+
+            assertEquals("Renamed", manager.getEpicById(epic.getId()).getName());
+            assertEquals(LocalDateTime.of(2025, 1, 10, 9, 0), manager.getEpicById(epic.getId()).getStartTime());
+        }
+
+        @Test
+        public void commit_deletedEpicTakesSubtasksAddedEarlier() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            manager.addSubtask(timedSub(epic.getId(), 9, 9, 0, 30));
+
+            manager.begin()
+                    .addSubtask(timedSub(epic.getId(), 9, 9, 0, 30))
+                    .deleteEpic(epic.getId())
+                    .commit();
+
+            assertTrue(manager.getAllEpics().isEmpty());
+            assertTrue(manager.getAllSubtasks().isEmpty());
+            assertTrue(manager.prioritizedTasks().isEmpty());
+        }
+
+        @Test
+        public void commit_twice_isRejected() {
+            Transaction tx = manager.begin().addEpic(new Epic("E", "D"));
+            tx.commit();
+
+            assertThrows(IllegalStateException.class, tx::commit);
+            assertEquals(1, manager.getAllEpics().size());
+        }
+    }
+
+    /* ===================== EVENTS ===================== */
+    @Nested
+    class Events {
+
+        @Test
+        public void mutations_emitTypedEvents_withBeforeAndAfter() {
+            EventSubscription events = manager.subscribe();
+            Task t = manager.addTask(new Task("Old", "D", TaskStatus.NEW));
+            Task renamed = t.copy();
+            renamed.setName("New");
+            manager.updateTask(renamed);
+            manager.deleteTaskById(t.getId());
+
+            List<TaskEvent> seen = events.poll(10);
+
+            assertEquals(List.of(TaskEvent.Kind.CREATED, TaskEvent.Kind.UPDATED, TaskEvent.Kind.DELETED),
+                    seen.stream().map(TaskEvent::kind).toList());
+            assertTrue(seen.stream().allMatch(e -> e.id() == t.getId() && e.type() == TaskType.TASK));
+            assertNull(seen.get(0).before());
+            assertEquals("Old", seen.get(1).before().getName());
+            assertEquals("New", seen.get(1).after().getName());
+            assertNull(seen.get(2).after());
+            assertTrue(seen.get(0).sequence() < seen.get(1).sequence());
+        }
+
+        @Test
+        public void subtaskChange_alsoEmitsEpicStatusUpdate() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            EventSubscription events = manager.subscribe();
+
+            manager.addSubtask(new Subtask("S", "D", TaskStatus.DONE, epic.getId()));
+
+            List<TaskEvent> seen = events.poll(10);
+            assertEquals(2, seen.size());
+            assertEquals(TaskType.SUBTASK, seen.get(0).type());
+            TaskEvent epicEvent = seen.get(1);
+            assertEquals(TaskEvent.Kind.UPDATED, epicEvent.kind());
+            assertEquals(TaskStatus.NEW, epicEvent.before().getStatus());
+            assertEquals(TaskStatus.DONE, epicEvent.after().getStatus());
+        }
+
+        @Test
+        public void events_areCopies_notLiveTasks() {
+            EventSubscription events = manager.subscribe();
+            Task t = manager.addTask(new Task("A", "D", TaskStatus.NEW));
+            t.setName("changed outside");
+
+            assertEquals("A", events.poll(1).getFirst().after().getName());
+        }
+
+        @Test
+        public void resubscribe_fromPosition_continuesWhereLeft() {
+            EventSubscription first = manager.subscribe();
+            manager.addEpic(new Epic("E1", "D"));
+            first.poll(10);
+            manager.addEpic(new Epic("E2", "D"));
+
+            EventSubscription resumed = manager.subscribe(first.position());
+
+            List<TaskEvent> seen = resumed.poll(10);
+            assertEquals(1, seen.size());
+            assertEquals("E2", seen.getFirst().after().getName());
+        }
+
+        @Test
+        public void cascadeDelete_emitsDeletedForEverySubtask() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            manager.addSubtask(new Subtask("S1", "D", TaskStatus.NEW, epic.getId()));
+            manager.addSubtask(new Subtask("S2", "D", TaskStatus.NEW, epic.getId()));
+            EventSubscription events = manager.subscribe();
+
+            manager.deleteEpicById(epic.getId());
+
+            List<TaskEvent> seen = events.poll(10);
+            assertEquals(3, seen.size());
+            assertTrue(seen.stream().allMatch(e -> e.kind() == TaskEvent.Kind.DELETED));
+            assertEquals(TaskType.EPIC, seen.getLast().type());
+        }
+    }
+
+    /* ===================== PAGING ===================== */
+    @Nested
+    class Paging {
+
+        @Test
+        public void getPage_mergesStatuses_inIdOrder() {
+            List<Task> all = new ArrayList<>();
+            TaskStatus[] statuses = TaskStatus.values();
+            for (int i = 0; i < 10; i++) {
+                all.add(manager.addTask(new Task("T" + i, "D", statuses[i % statuses.length])));
+            }
+
+            assertEquals(all.subList(0, 4), manager.getPage(TaskType.TASK, null, 0, 4));
+            assertEquals(all.subList(4, 8), manager.getPage(TaskType.TASK, null, all.get(3).getId(), 4));
+            assertEquals(all.subList(8, 10), manager.getPage(TaskType.TASK, null, all.get(7).getId(), 4));
+            assertEquals(List.of(all.get(1), all.get(4)),
+                    manager.getPage(TaskType.TASK, TaskStatus.IN_PROGRESS, 0, 2));
+        }
+
+        @Test
+        public void getPage_skipsDeleted_andSeparatesTypes() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            Subtask s1 = manager.addSubtask(new Subtask("S1", "D", TaskStatus.NEW, epic.getId()));
+            Subtask s2 = manager.addSubtask(new Subtask("S2", "D", TaskStatus.DONE, epic.getId()));
+            Subtask s3 = manager.addSubtask(new Subtask("S3", "D", TaskStatus.NEW, epic.getId()));
+            manager.deleteSubtaskById(s2.getId());
+
+            assertEquals(List.of(s1, s3), manager.getPage(TaskType.SUBTASK, null, 0, 10));
+            assertEquals(List.of(epic), manager.getPage(TaskType.EPIC, null, 0, 10));
+            assertTrue(manager.getPage(TaskType.TASK, null, 0, 10).isEmpty());
+        }
+    }
+
+    /* ===================== SEARCH ===================== */
+    @Nested
+    class Search {
+
+        @Test
+        public void search_prefixAndRanking() {
+            Task inDescription = manager.addTask(new Task("Shopping", "buy milk and bread", TaskStatus.NEW));
+            Task inName = manager.addTask(new Task("Milk delivery", "morning", TaskStatus.NEW));
+            manager.addTask(new Task("Gym", "legs", TaskStatus.NEW));
+
+            assertEquals(List.of(inName, inDescription), manager.search("mil", 10));
+            assertEquals(List.of(inDescription), manager.search("MILK bread", 10));
+            assertEquals(List.of(inName), manager.search("milk", 1));
+            assertTrue(manager.search("tea", 10).isEmpty());
+        }
+
+        @Test
+        public void search_followsUpdatesAndDeletes() {
+            Epic epic = manager.addEpic(new Epic("Релиз", "подготовка"));
+            Subtask subtask = manager.addSubtask(new Subtask("Сборка", "jar", TaskStatus.NEW, epic.getId()));
+
+            assertEquals(List.of(epic), manager.search("рел", 10));
+
+            Epic renamed = new Epic("Деплой", "подготовка");
+            renamed.setId(epic.getId());
+            manager.updateEpic(renamed);
+            Subtask changed = new Subtask("Тесты", "jar", TaskStatus.NEW, epic.getId());
+            changed.setId(subtask.getId());
+            manager.updateSubtask(changed);
+
+            assertTrue(manager.search("релиз", 10).isEmpty());
+            assertEquals(List.of(epic), manager.search("деплой", 10));
+            assertEquals(List.of(changed), manager.search("тест", 10));
+
+            manager.deleteEpicById(epic.getId());
+
+            assertTrue(manager.search("jar", 10).isEmpty());
+            assertTrue(manager.search("подготовка", 10).isEmpty());
+        }
+    }
+
     /* ===================== PRIORITY & INTERVALS ===================== */
     @Nested
     class PriorityAndIntervals {
@@ -318,5 +790,40 @@ public abstract class TaskManagerTest<T extends TaskManager> {
 
             assertThrows(IllegalArgumentException.class, () -> manager.addSubtask(sOverlap));
         }
+
+        @Test
+        public void updateTask_movedInPlace_checksAgainstOthersOnly_andReorders() {
+            Task a = manager.addTask(timedTask(1, 9, 0, 60));
+            Task b = manager.addTask(timedTask(1, 12, 0, 60));
+
+            a.setStartTime(LocalDateTime.of(2025, 1, 1, 9, 30));
+            assertDoesNotThrow(() -> manager.updateTask(a));
+
+            b.setStartTime(LocalDateTime.of(2025, 1, 1, 8, 0));
+            manager.updateTask(b);
+            assertArrayEquals(new Task[]{b, a}, manager.prioritizedTasks().toArray(Task[]::new));
+
+            Task c = timedTask(1, 10, 0, 15);
+            assertThrows(IllegalArgumentException.class, () -> manager.addTask(c));
+        }
+
+        @Test
+        public void overlapCheck_matchesPairwiseScan_onRandomSchedule() {
+            Random random = new Random(42);
+            List<Task> accepted = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                Task candidate = timedTask(1 + random.nextInt(5), random.nextInt(24), random.nextInt(60),
+                        random.nextInt(180));
+                boolean expected = accepted.stream().anyMatch(other ->
+                        candidate.getStartTime().isBefore(other.getEndTime())
+                                && other.getStartTime().isBefore(candidate.getEndTime()));
+                if (expected) {
+                    assertThrows(IllegalArgumentException.class, () -> manager.addTask(candidate));
+                } else {
+                    accepted.add(manager.addTask(candidate));
+                }
+            }
+            assertEquals(accepted.size(), manager.prioritizedTasks().size());
+        }
     }
 }
@@ -0,0 +1,158 @@
+package ru.java.java_kanban.task;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import ru.java.java_kanban.manager.history.InMemoryHistoryManager;
+import ru.java.java_kanban.manager.task.TaskSnapshot;
+import ru.java.java_kanban.manager.task.VersionedTaskManager;
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersionedTaskManagerTest extends TaskManagerTest<VersionedTaskManager> {
+    @Override
+    protected VersionedTaskManager createManager() {
+        return new VersionedTaskManager(new InMemoryHistoryManager());
+    }
+
+    @Nested
+    class Snapshots {
+
+        @Test
+        public void snapshot_isNotAffectedByLaterWrites() {
+            Task task = manager.addTask(new Task("A", "D", TaskStatus.NEW));
+            TaskSnapshot before = manager.snapshot();
+
+            Task changed = new Task("B", "D", TaskStatus.DONE);
+            changed.setId(task.getId());
+            manager.updateTask(changed);
+            manager.addTask(new Task("C", "D", TaskStatus.NEW));
+
+            assertEquals("A", before.task(task.getId()).getName());
+            assertEquals(1, before.tasks().size());
+            assertEquals("B", manager.getTaskById(task.getId()).getName());
+            assertEquals(before.version() + 2, manager.snapshot().version());
+        }
+
+        @Test
+        public void snapshot_doesNotShareObjectsWithCaller() {
+            Task task = manager.addTask(timedTask(1, 10, 0, 30));
+            TaskSnapshot before = manager.snapshot();
+
+            task.setName("changed outside");
+
+            assertEquals("T-1-10", before.task(task.getId()).getName());
+            assertEquals(1, before.prioritized().size());
+        }
+
+        @Test
+        public void readers_neverSeeTornEpic() throws Exception {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<String> failure = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                while (!done.get()) {
+                    TaskSnapshot snapshot = manager.snapshot();
+                    Epic e = snapshot.epic(epic.getId());
+                    // каждый сабтаск из списка эпика есть в том же снимке, и наоборот
+                    int listed = snapshot.subtasksOf(epic.getId()).size();
+                    if (listed != e.getSubtaskIds().size() || listed != snapshot.subtasks().size()) {
+                        failure.set("torn snapshot at version " + snapshot.version());
+                    }
+                }
+            });
+            reader.start();
+            for (int i = 0; i < 2000; i++) {
+                Subtask s = manager.addSubtask(new Subtask("S" + i, "D", TaskStatus.NEW, epic.getId()));
+                if (i % 3 == 0) {
+                    manager.deleteSubtaskById(s.getId());
+                }
+            }
+            done.set(true);
+            reader.join();
+
+            assertNull(failure.get());
+        }
+
+        @Test
+        public void statusQueries_comeFromSnapshot() {
+            Task task = manager.addTask(new Task("Alpha", "D", TaskStatus.NEW));
+            List<Task> before = manager.findByStatus(TaskType.TASK, TaskStatus.NEW);
+
+            Task changed = new Task("Alpha", "D", TaskStatus.DONE);
+            changed.setId(task.getId());
+            manager.updateTask(changed);
+
+            assertEquals(TaskStatus.NEW, before.getFirst().getStatus());
+            assertSame(manager.snapshot().task(task.getId()),
+                    manager.findByStatus(TaskType.TASK, TaskStatus.DONE).getFirst());
+            assertSame(manager.snapshot().task(task.getId()), manager.getPage(TaskType.TASK, null, 0, 10).getFirst());
+            assertSame(manager.snapshot().task(task.getId()), manager.search("alpha", 10).getFirst());
+            assertTrue(manager.findByStatus(TaskType.TASK, TaskStatus.NEW).isEmpty());
+        }
+
+        // писатель держит монитор менеджера - читатели и история его не ждут
+        @Test
+        public void readers_doNotWaitForWriter() throws Exception {
+            Task task = manager.addTask(new Task("Alpha", "D", TaskStatus.NEW));
+            CountDownLatch held = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Thread writer = new Thread(() -> {
+                synchronized (manager) {
+                    held.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            writer.start();
+            held.await();
+            try {
+                CompletableFuture<Integer> reads = CompletableFuture.supplyAsync(() -> {
+                    manager.getTaskById(task.getId());
+                    return manager.findByStatus(TaskType.TASK, TaskStatus.NEW).size()
+                            + manager.getPage(TaskType.TASK, TaskStatus.NEW, 0, 10).size()
+                            + manager.search("alpha", 10).size()
+                            + manager.getHistory().size();
+                });
+                assertEquals(4, reads.get(5, TimeUnit.SECONDS));
+            } finally {
+                release.countDown();
+                writer.join();
+            }
+        }
+
+        // правка сабтаска не меняет состав эпика - новая версия эпика делит список с прошлой
+        @Test
+        public void subtaskUpdate_sharesEpicSubtaskList() {
+            Epic epic = manager.addEpic(new Epic("E", "D"));
+            Subtask s = manager.addSubtask(new Subtask("S", "D", TaskStatus.NEW, epic.getId()));
+            manager.addSubtask(new Subtask("S2", "D", TaskStatus.NEW, epic.getId()));
+            Epic before = manager.snapshot().epic(epic.getId());
+
+            Subtask done = new Subtask("S", "D", TaskStatus.DONE, epic.getId());
+            done.setId(s.getId());
+            manager.updateSubtask(done);
+
+            Epic after = manager.snapshot().epic(epic.getId());
+            assertEquals(TaskStatus.NEW, before.getStatus());
+            assertEquals(TaskStatus.IN_PROGRESS, after.getStatus());
+            assertSame(before.getSubtaskIds(), after.getSubtaskIds());
+            assertEquals(1, manager.findByStatus(TaskType.EPIC, TaskStatus.IN_PROGRESS).size());
+            assertTrue(manager.findByStatus(TaskType.EPIC, TaskStatus.NEW).isEmpty());
+        }
+    }
+}
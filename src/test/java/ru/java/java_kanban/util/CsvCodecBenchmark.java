@@ -0,0 +1,162 @@
+package ru.java.java_kanban.util;
+
+import ru.java.java_kanban.model.Epic;
+import ru.java.java_kanban.model.Subtask;
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+import ru.java.java_kanban.model.TaskType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// не тест, ручной замер: разбор и запись CSV потоковым CsvReader/CsvWriter против прежнего split по запятым.
+// Запуск:
+//   mvn test-compile
+//   java -cp target/classes:target/test-classes ru.java.java_kanban.util.CsvCodecBenchmark [записей]
+public final class CsvCodecBenchmark {
+    private static final int ROUNDS = 5;
+
+    private static volatile long sink;
+
+    private CsvCodecBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<Task> tasks = board(count);
+        StringBuilder text = new StringBuilder(count * 96);
+        CsvWriter writer = new CsvWriter(text);
+        for (Task task : tasks) {
+            CsvConverter.write(writer, task);
+        }
+        String csv = text.toString();
+        // загрузчик снапшота отдаёт CsvReader уже декодированный чанк в CharBuffer на массиве
+        char[] chars = csv.toCharArray();
+
+        System.out.printf("%d records, %d KB of CSV%n", count, csv.length() / 1024);
+        System.out.printf("%-22s %12s %14s%n", "", "ns/record", "bytes/record");
+        // прежняя загрузка: строки файла, затем split каждой
+        report("parse: split (old)", count, () -> {
+            BufferedReader lines = new BufferedReader(new StringReader(csv));
+            long sum = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                sum += splitParse(line).getId();
+            }
+            return sum;
+        });
+        report("parse: CsvReader", count, () -> {
+            CsvReader reader = new CsvReader(CharBuffer.wrap(chars));
+            long sum = 0;
+            while (reader.next()) {
+                sum += CsvConverter.fromRecord(reader).getId();
+            }
+            return sum;
+        });
+        report("write: concat (old)", count, () -> {
+            long sum = 0;
+            for (Task task : tasks) {
+                sum += concatWrite(task).length();
+            }
+            return sum;
+        });
+        StringBuilder out = new StringBuilder(csv.length());
+        CsvWriter shared = new CsvWriter(out);
+        report("write: CsvWriter", count, () -> {
+            out.setLength(0);
+            for (Task task : tasks) {
+                CsvConverter.write(shared, task);
+            }
+            return out.length();
+        });
+    }
+
+    @FunctionalInterface
+    private interface Work {
+        long run() throws IOException;
+    }
+
+    // лучший из ROUNDS прогонов после прогрева; память - по счётчику аллокаций потока
+    private static void report(String name, int count, Work work) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += work.run();
+        }
+        long best = Long.MAX_VALUE;
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+            long started = System.nanoTime();
+            sink += work.run();
+            best = Math.min(best, System.nanoTime() - started);
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - bytesBefore);
+        }
+        System.out.printf("%-22s %12.0f %14.0f%n", name, (double) best / count, (double) allocated / count);
+    }
+
+    // задачи, эпики и сабтаски вперемешку; у половины есть расписание
+    private static List<Task> board(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int id = 1; id <= count; id++) {
+            Task task = switch (id % 3) {
+                case 0 -> new Epic("Epic " + id, "release train " + id);
+                case 1 -> new Subtask("Subtask " + id, "part of the work " + id, TaskStatus.IN_PROGRESS, id - 1);
+                default -> new Task("Task " + id, "something to do " + id, TaskStatus.NEW);
+            };
+            task.setId(id);
+            if (id % 2 == 0 && task.getType() != TaskType.EPIC) {
+                task.setStartTime(base.plusMinutes(id * 30L));
+                task.setDurationMinutes(15L);
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    // прежний CsvConverter.fromCvsString
+    private static Task splitParse(String line) {
+        String[] parts = line.split(",", -1);
+        int id = Integer.parseInt(parts[0]);
+        TaskType type = TaskType.valueOf(parts[1]);
+        String name = parts[2];
+        TaskStatus status = TaskStatus.valueOf(parts[3]);
+        String description = parts[4];
+        LocalDateTime start = parts[5].isBlank() ? null : LocalDateTime.parse(parts[5].trim());
+        Long minutes = parts[7].isBlank() ? null : Long.parseLong(parts[7].trim());
+        Task task = switch (type) {
+            case TASK -> new Task(name, description, status);
+            case EPIC -> new Epic(name, description);
+            case SUBTASK -> new Subtask(name, description, status, Integer.parseInt(parts[8]));
+        };
+        task.setId(id);
+        if (type != TaskType.EPIC) {
+            task.setStartTime(start);
+            task.setDurationMinutes(minutes);
+        }
+        return task;
+    }
+
+    // прежний CsvConverter.toCsvString: свой StringBuilder и строка на каждую задачу
+    private static String concatWrite(Task task) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(task.getId()).append(",");
+        sb.append(task.getType()).append(",");
+        sb.append(task.getName()).append(",");
+        sb.append(task.getStatus()).append(",");
+        sb.append(task.getDescription()).append(",");
+        sb.append(task.getStartTime() == null ? "" : task.getStartTime().toString()).append(",");
+        sb.append(task.getEndTime() == null ? "" : task.getEndTime().toString()).append(",");
+        sb.append(task.getDurationMinutes() == null ? "" : task.getDurationMinutes().toString()).append(",");
+        String csv = sb.toString();
+        return task instanceof Subtask subtask ? csv + subtask.getEpicId() : csv;
+    }
+}
@@ -0,0 +1,63 @@
+package ru.java.java_kanban.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReaderTest {
+
+    private static CsvReader read(String text) throws IOException {
+        CsvReader reader = new CsvReader(CharBuffer.wrap(text.toCharArray()));
+        assertTrue(reader.next());
+        return reader;
+    }
+
+    @Test
+    public void dateTime_parsesEveryToStringShape() throws IOException {
+        LocalDateTime minutes = LocalDateTime.of(2025, 3, 9, 7, 5);
+        LocalDateTime seconds = minutes.withSecond(42);
+        LocalDateTime nanos = seconds.withNano(120_000_000);
+        CsvReader reader = read(minutes + "," + seconds + ", " + nanos + " ,,null\n");
+
+        assertEquals(minutes, reader.dateTime(0));
+        assertEquals(seconds, reader.dateTime(1));
+        assertEquals(nanos, reader.dateTime(2));
+        assertNull(reader.dateTime(3));
+        assertNull(reader.dateTime(4));
+    }
+
+    @Test
+    public void dateTime_rejectsInvalidValues() throws IOException {
+        CsvReader reader = read("2025-13-01T10:00,2025-01-01T1x:00\n");
+
+        assertThrows(DateTimeException.class, () -> reader.dateTime(0));
+        assertThrows(DateTimeException.class, () -> reader.dateTime(1));
+    }
+
+    @Test
+    public void plainAndQuotedFields_keepTheirText() throws IOException {
+        CsvReader reader = read("plain text,\"a,\"\"b\"\"\nc\",,\"\"\n");
+
+        assertEquals(4, reader.fieldCount());
+        assertEquals("plain text", reader.string(0));
+        assertEquals("a,\"b\"\nc", reader.string(1));
+        assertNull(reader.string(2));
+        assertEquals("", reader.string(3));
+    }
+
+    @Test
+    public void literalQuotes_treatsQuoteAsText() throws IOException {
+        CsvReader reader = new CsvReader(CharBuffer.wrap("1,Say \"hi,x\n2,next\n")).literalQuotes();
+
+        assertTrue(reader.next());
+        assertEquals("Say \"hi", reader.string(1));
+        assertTrue(reader.next());
+        assertEquals("next", reader.string(1));
+        assertFalse(reader.next());
+    }
+}
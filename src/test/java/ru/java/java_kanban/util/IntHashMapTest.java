@@ -0,0 +1,103 @@
+package ru.java.java_kanban.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntHashMapTest {
+
+    @Test
+    public void put_get_remove_basicOperations() {
+        IntHashMap<String> map = new IntHashMap<>();
+        assertNull(map.putInt(1, "a"));
+        assertEquals("a", map.putInt(1, "b"));
+        map.putInt(-7, "c");
+
+        assertEquals(2, map.size());
+        assertEquals("b", map.get(1));
+        assertEquals("c", map.get(Integer.valueOf(-7)));
+        assertTrue(map.containsKey(-7));
+        assertNull(map.get(2));
+
+        assertEquals("b", map.remove(1));
+        assertNull(map.remove(1));
+        assertEquals(1, map.size());
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void put_rejectsNullValue() {
+        IntHashMap<String> map = new IntHashMap<>();
+
+        assertThrows(NullPointerException.class, () -> map.putInt(1, null));
+    }
+
+    @Test
+    public void iteration_sequentialIds_ascendingOrder() {
+        IntHashMap<Integer> map = new IntHashMap<>();
+        for (int i = 1; i <= 100; i++) {
+            map.putInt(i, i * 10);
+        }
+
+        List<Integer> keys = new ArrayList<>(map.keySet());
+        List<Integer> values = new ArrayList<>(map.values());
+
+        assertEquals(100, keys.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, keys.get(i));
+            assertEquals((i + 1) * 10, values.get(i));
+        }
+    }
+
+    @Test
+    public void randomOperations_matchHashMap() {
+        Random random = new Random(42);
+        IntHashMap<Integer> map = new IntHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        // узкий диапазон ключей даёт длинные цепочки и проверяет сдвиг при удалении
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(4096) - 2048;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.putInt(key, i));
+            }
+        }
+
+        assertEquals(expected, map);
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key.intValue())));
+    }
+
+    @Test
+    public void clear_emptiesMap() {
+        IntHashMap<String> map = new IntHashMap<>();
+        map.putInt(3, "x");
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.keySet().iterator().hasNext());
+        map.putInt(3, "y");
+        assertEquals("y", map.get(3));
+    }
+
+    @Test
+    public void intList_removeObject_removesValueNotIndex() {
+        IntList list = new IntList();
+        list.add(5);
+        list.add(0);
+        list.add(7);
+
+        assertTrue(list.remove(Integer.valueOf(0)));
+        assertEquals(List.of(5, 7), list);
+        assertEquals(7, list.remove(1));
+        assertTrue(list.contains(5));
+        assertFalse(list.contains(7));
+    }
+}
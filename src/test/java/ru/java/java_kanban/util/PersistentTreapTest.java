@@ -0,0 +1,76 @@
+package ru.java.java_kanban.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentTreapTest {
+
+    @Test
+    public void putRemove_leavesOldVersionsIntact() {
+        PersistentTreap<Integer, String> v0 = PersistentTreap.empty();
+        PersistentTreap<Integer, String> v1 = v0.put(2, "b").put(1, "a");
+        PersistentTreap<Integer, String> v2 = v1.put(2, "B").remove(1);
+
+        assertTrue(v0.isEmpty());
+        assertEquals(List.of("a", "b"), v1.values());
+        assertEquals(List.of("B"), v2.values());
+        assertNull(v2.get(1));
+        assertSame(v2, v2.remove(42));
+    }
+
+    @Test
+    public void between_matchesTreeMapRange() {
+        Random random = new Random(11);
+        PersistentTreap<Integer, Integer> treap = PersistentTreap.empty();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(5000);
+            treap = treap.put(key, key);
+            expected.put(key, key);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(5200) - 100;
+            int to = from + random.nextInt(1000);
+            int limit = random.nextInt(50);
+            List<Integer> range = expected.subMap(from, false, to, true).values().stream().limit(limit).toList();
+            assertEquals(range, treap.between(from, to, limit));
+        }
+        assertTrue(treap.between(10, 5, 10).isEmpty());
+    }
+
+    @Test
+    public void randomOperations_matchTreeMap() {
+        Random random = new Random(7);
+        PersistentTreap<Integer, Integer> treap = PersistentTreap.empty();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        List<PersistentTreap<Integer, Integer>> versions = new ArrayList<>();
+        List<List<Integer>> snapshots = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                treap = treap.remove(key);
+                expected.remove(key);
+            } else {
+                treap = treap.put(key, i);
+                expected.put(key, i);
+            }
+            if (i % 2000 == 0) {
+                versions.add(treap);
+                snapshots.add(new ArrayList<>(expected.values()));
+            }
+        }
+
+        assertEquals(expected.size(), treap.size());
+        assertEquals(new ArrayList<>(expected.values()), treap.values());
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(snapshots.get(i), versions.get(i).values());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.java.java_kanban.util;
+
+import ru.java.java_kanban.model.Task;
+import ru.java.java_kanban.model.TaskStatus;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+// не тест, ручной замер: память и поиск IntHashMap/IntList против HashMap<Integer, ...>/List<Integer>.
+// Запуск (куче нужно с запасом, иначе сборщик исказит замер памяти):
+//   mvn test-compile
+//   java -Xmx3g -cp target/classes:target/test-classes ru.java.java_kanban.util.TaskStorageBenchmark [задач]
+public final class TaskStorageBenchmark {
+    private static final int ROUNDS = 5;
+    private static final int LOOKUPS = 10_000_000;
+    // у эпика обычно несколько сабтасок: столько id в каждом списке
+    private static final int SUBTASKS_PER_EPIC = 4;
+
+    private static volatile long sink;
+
+    private TaskStorageBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        // сами задачи общие для обеих структур и в замер памяти не входят
+        Task[] tasks = new Task[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new Task("T", "D", TaskStatus.NEW);
+            tasks[i].setId(i + 1);
+        }
+
+        System.out.printf("%d entries%n", count);
+        System.out.printf("%-34s %12s %14s%n", "", "retained MB", "bytes/entry");
+        footprint("map: HashMap<Integer, Task>", count, () -> {
+            Map<Integer, Task> map = new HashMap<>();
+            for (Task task : tasks) {
+                map.put(task.getId(), task);
+            }
+            return map;
+        });
+        footprint("map: IntHashMap<Task>", count, () -> {
+            IntHashMap<Task> map = new IntHashMap<>();
+            for (Task task : tasks) {
+                map.putInt(task.getId(), task);
+            }
+            return map;
+        });
+        int epics = count / SUBTASKS_PER_EPIC;
+        footprint("epic ids: ArrayList<Integer> x" + SUBTASKS_PER_EPIC, count,
+                () -> subtaskLists(epics, i -> new ArrayList<>()));
+        footprint("epic ids: IntList x" + SUBTASKS_PER_EPIC, count,
+                () -> subtaskLists(epics, i -> new IntList()));
+
+        Map<Integer, Task> boxed = new HashMap<>();
+        IntHashMap<Task> primitive = new IntHashMap<>();
+        for (Task task : tasks) {
+            boxed.put(task.getId(), task);
+            primitive.putInt(task.getId(), task);
+        }
+        // случайные id, чтобы поиск не шёл по кэшу подряд
+        Random random = new Random(42);
+        int[] keys = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            keys[i] = random.nextInt(count) + 1;
+        }
+        System.out.printf("%n%-34s %12s%n", "", "ns/lookup");
+        lookups("get: HashMap<Integer, Task>", keys, key -> boxed.get(key));
+        lookups("get: IntHashMap<Task>", keys, primitive::get);
+    }
+
+    private static List<List<Integer>> subtaskLists(int epics, IntFunction<List<Integer>> factory) {
+        List<List<Integer>> lists = new ArrayList<>(epics);
+        int id = 1;
+        for (int e = 0; e < epics; e++) {
+            List<Integer> ids = factory.apply(e);
+            for (int s = 0; s < SUBTASKS_PER_EPIC; s++) {
+                ids.add(id++);
+            }
+            lists.add(ids);
+        }
+        return lists;
+    }
+
+    // занятая куча после полной сборки до и после построения; структура держится, пока идёт замер
+    private static void footprint(String name, int entries, Supplier<Object> build) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedAfterGc(memory);
+        Object structure = build.get();
+        long after = usedAfterGc(memory);
+        sink += structure.hashCode();
+        long retained = after - before;
+        System.out.printf("%-34s %12.1f %14.1f%n", name, retained / 1048576.0, (double) retained / entries);
+    }
+
+    private static long usedAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        Task get(int key);
+    }
+
+    // лучший из ROUNDS прогонов после прогрева
+    private static void lookups(String name, int[] keys, Lookup lookup) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS * 2; round++) {
+            long started = System.nanoTime();
+            long sum = 0;
+            for (int key : keys) {
+                sum += lookup.get(key).getId();
+            }
+            long elapsed = System.nanoTime() - started;
+            sink += sum;
+            if (round >= ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        System.out.printf("%-34s %12.1f%n", name, (double) best / keys.length);
+    }
+}